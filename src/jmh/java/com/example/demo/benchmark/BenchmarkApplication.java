@@ -0,0 +1,47 @@
+package com.example.demo.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.example.demo.TechhubApplication;
+
+/**
+ * The whole application over an in-memory H2 database, driven through MockMvc
+ * so requests go through the dispatcher, the Jackson converters configured
+ * by JacksonConfiguration, the controllers and JPA, without a network hop.
+ */
+final class BenchmarkApplication {
+
+    private final ConfigurableApplicationContext context;
+    private final MockMvc mockMvc;
+
+    private BenchmarkApplication(ConfigurableApplicationContext context){
+        this.context = context;
+        this.mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    static BenchmarkApplication start(){
+        return new BenchmarkApplication(new SpringApplicationBuilder(TechhubApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "logging.level.root=WARN")
+                .run());
+    }
+
+    <T> T getBean(Class<T> type){
+        return context.getBean(type);
+    }
+
+    MockMvc mockMvc(){
+        return mockMvc;
+    }
+
+    void stop(){
+        context.close();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.demo.JacksonConfiguration;
+import com.example.demo.entities.*;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * A listing of 100000 appointments written and read as JSON, CBOR and Smile,
+ * each with the JacksonConfiguration customizations, the way the controllers
+ * answer the matching Accept header. The payload size of each format is
+ * reported next to the times as the payloadBytes and bytesPerAppointment
+ * counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BinaryFormatsBenchmark {
+
+    private static final TypeReference<List<Appointment>> APPOINTMENTS = new TypeReference<List<Appointment>>() {};
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"100000"})
+    int appointments;
+
+    private ObjectMapper objectMapper;
+    private List<Appointment> listing;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new JacksonConfiguration().jackson2ObjectMapperBuilderCustomizer().customize(builder);
+        if ("cbor".equals(format)){
+            builder.factory(new CBORFactory());
+        } else if ("smile".equals(format)){
+            builder.factory(new SmileFactory());
+        }
+        objectMapper = builder.build();
+
+        LocalDateTime base = LocalDateTime.of(2023, 1, 2, 0, 0);
+        listing = new ArrayList<>(appointments);
+        for (int i = 0; i < appointments; i++){
+            Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya" + (i % 5000) + "@email.com");
+            Doctor doctor = new Doctor("Perla", "Amalia", 24, "p.amalia" + (i % 200) + "@hospital.accwe");
+            patient.setId(i % 5000 + 1);
+            doctor.setId(i % 200 + 1);
+            Appointment appointment = new Appointment(patient, doctor, new Room("Room-" + (i % 50)),
+                    base.plusMinutes(30L * i), base.plusMinutes(30L * i + 30));
+            appointment.setId(i + 1);
+            listing.add(appointment);
+        }
+        payload = objectMapper.writeValueAsBytes(listing);
+    }
+
+    @Benchmark
+    public byte[] serialize(PayloadSize size) throws Exception {
+        byte[] written = objectMapper.writeValueAsBytes(listing);
+        size.record(written.length, appointments);
+        return written;
+    }
+
+    @Benchmark
+    public List<Appointment> deserialize(PayloadSize size) throws Exception {
+        size.record(payload.length, appointments);
+        return objectMapper.readValue(payload, APPOINTMENTS);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        public long payloadBytes;
+        public long bytesPerAppointment;
+
+        void record(int bytes, int appointments){
+            payloadBytes = bytes;
+            bytesPerAppointment = bytes / appointments;
+        }
+    }
+}
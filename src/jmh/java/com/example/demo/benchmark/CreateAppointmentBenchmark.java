@@ -0,0 +1,64 @@
+package com.example.demo.benchmark;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+
+/**
+ * POST /api/appointment end to end over H2. Every call books the next free
+ * hour of one of a few rooms, so all of them are accepted and saved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateAppointmentBenchmark {
+
+    private static final int ROOMS = 16;
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+
+    private BenchmarkApplication application;
+    private final LocalDateTime base = LocalDateTime.of(2023, 1, 2, 0, 0);
+    private long booked;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        application = BenchmarkApplication.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        application.stop();
+    }
+
+    @Benchmark
+    public int createAppointment() throws Exception {
+        long n = booked++;
+        LocalDateTime startsAt = base.plusHours(n / ROOMS);
+        String body = "{\"patient\":{\"firstName\":\"Jose Luis\",\"lastName\":\"Olaya\",\"age\":37,\"email\":\"j.olaya@email.com\"},"
+                + "\"doctor\":{\"firstName\":\"Perla\",\"lastName\":\"Amalia\",\"age\":24,\"email\":\"p.amalia@hospital.accwe\"},"
+                + "\"room\":{\"roomName\":\"Room-" + (n % ROOMS) + "\"},"
+                + "\"startsAt\":\"" + startsAt.format(FORMAT) + "\",\"finishesAt\":\"" + startsAt.plusHours(1).format(FORMAT) + "\"}";
+        return application.mockMvc()
+                .perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.benchmark;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.demo.JacksonConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+/**
+ * An array of 10000 "HH:mm dd/MM/yyyy" date-times written and read with the
+ * DateTimeCodec of JacksonConfiguration and with the formatter-based jsr310
+ * serializer and deserializer it replaced. Run with -prof gc to compare the
+ * allocation rates as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateTimeCodecBenchmark {
+
+    private static final int VALUES = 10000;
+
+    @Param({"codec", "formatter"})
+    String dates;
+
+    private ObjectMapper objectMapper;
+    private LocalDateTime[] values;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        if ("codec".equals(dates)){
+            new JacksonConfiguration().jackson2ObjectMapperBuilderCustomizer().customize(builder);
+        } else {
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+            builder.serializers(new LocalDateTimeSerializer(formatter));
+            builder.deserializers(new LocalDateTimeDeserializer(formatter));
+        }
+        objectMapper = builder.build();
+
+        LocalDateTime base = LocalDateTime.of(2023, 1, 2, 0, 0);
+        values = new LocalDateTime[VALUES];
+        for (int i = 0; i < VALUES; i++){
+            values[i] = base.plusMinutes(37L * i);
+        }
+        json = objectMapper.writeValueAsBytes(values);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(values);
+    }
+
+    @Benchmark
+    public LocalDateTime[] deserialize() throws Exception {
+        return objectMapper.readValue(json, LocalDateTime[].class);
+    }
+}
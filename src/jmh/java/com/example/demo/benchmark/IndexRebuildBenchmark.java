@@ -0,0 +1,69 @@
+package com.example.demo.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.dto.AppointmentInterval;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.services.AppointmentIndex;
+
+/**
+ * A startup rebuild of {@link AppointmentIndex} from intervals in no
+ * particular order, as findAllIntervals returns them, spread over 300 rooms
+ * like the synthetic data set.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class IndexRebuildBenchmark {
+
+    private static final int ROOMS = 300;
+
+    @Param({"200000", "2000000"})
+    int appointments;
+
+    private AppointmentIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        LocalDateTime base = LocalDateTime.of(2023, 1, 2, 8, 0);
+        List<AppointmentInterval> intervals = new ArrayList<>(appointments);
+        for (int i = 0; i < appointments; i++){
+            LocalDateTime startsAt = base.plusMinutes(30L * (i / ROOMS));
+            intervals.add(new AppointmentInterval(i + 1, "Room-" + (i % ROOMS), startsAt, startsAt.plusMinutes(30)));
+        }
+        Collections.shuffle(intervals, new Random(42));
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+        when(appointmentRepository.findAllIntervals()).thenReturn(intervals);
+        index = new AppointmentIndex(appointmentRepository);
+    }
+
+    @Benchmark
+    public int rebuild(){
+        index.rebuild();
+        return index.size();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.demo.JacksonConfiguration;
+import com.example.demo.entities.*;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Appointment JSON with the ObjectMapper the application builds, i.e. with
+ * the JacksonConfiguration date formatters applied.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private static final TypeReference<List<Appointment>> APPOINTMENTS = new TypeReference<List<Appointment>>() {};
+
+    @Param({"1", "100", "10000"})
+    int appointments;
+
+    private ObjectMapper objectMapper;
+    private List<Appointment> schedule;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new JacksonConfiguration().jackson2ObjectMapperBuilderCustomizer().customize(builder);
+        objectMapper = builder.build();
+
+        LocalDateTime base = LocalDateTime.of(2023, 1, 2, 0, 0);
+        schedule = new ArrayList<>(appointments);
+        for (int i = 0; i < appointments; i++){
+            Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+            Doctor doctor = new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+            patient.setId(i + 1);
+            doctor.setId(i + 1);
+            Appointment appointment = new Appointment(patient, doctor, new Room("Room-" + (i % 16)),
+                    base.plusHours(i), base.plusHours(i + 1));
+            appointment.setId(i + 1);
+            schedule.add(appointment);
+        }
+        json = objectMapper.writeValueAsBytes(schedule);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(schedule);
+    }
+
+    @Benchmark
+    public List<Appointment> deserialize() throws Exception {
+        return objectMapper.readValue(json, APPOINTMENTS);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.benchmark;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.controllers.AppointmentController;
+import com.example.demo.entities.*;
+
+/**
+ * The four findAll listing endpoints over a database holding the given
+ * number of appointments, each with its own patient and doctor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingBenchmark {
+
+    private static final int ROOMS = 16;
+
+    @Param({"100", "1000", "10000"})
+    int appointments;
+
+    private BenchmarkApplication application;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        application = BenchmarkApplication.start();
+        LocalDateTime base = LocalDateTime.of(2023, 1, 2, 0, 0);
+        List<Appointment> schedule = new ArrayList<>(appointments);
+        for (int i = 0; i < appointments; i++){
+            LocalDateTime startsAt = base.plusHours(i / ROOMS);
+            schedule.add(new Appointment(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"),
+                    new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"),
+                    new Room("Room-" + (i % ROOMS)), startsAt, startsAt.plusHours(1)));
+        }
+        application.getBean(AppointmentController.class).createAppointments(schedule, "all-or-nothing");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        application.stop();
+    }
+
+    @Benchmark
+    public String listAppointments() throws Exception {
+        return list("/api/appointments");
+    }
+
+    @Benchmark
+    public String listPatients() throws Exception {
+        return list("/api/patients");
+    }
+
+    @Benchmark
+    public String listDoctors() throws Exception {
+        return list("/api/doctors");
+    }
+
+    @Benchmark
+    public String listRooms() throws Exception {
+        return list("/api/rooms");
+    }
+
+    private String list(String path) throws Exception {
+        return application.mockMvc().perform(get(path)).andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import com.example.demo.reactive.ReactiveReadRoutes;
+import com.example.demo.reactive.ReactiveReads;
+import com.example.demo.reactive.ReactiveServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Non-blocking reads of appointments, patients, doctors and rooms on a port of
+ * their own (reactive.port), only when reactive.enabled=true is set: WebFlux routes on
+ * Reactor Netty over an R2DBC pool, next to the servlet controllers, which
+ * keep serving everything including the writes. Responses are written with
+ * the application's ObjectMapper, so the JSON is that of the servlet side.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class ReactiveConfiguration {
+
+    @Bean
+    public ReactiveReads reactiveReads(@Value("${reactive.r2dbc.url}") String url,
+            @Value("${reactive.r2dbc.username:#{null}}") String username,
+            @Value("${reactive.r2dbc.password:#{null}}") String password,
+            @Value("${reactive.r2dbc.pool-size:10}") int poolSize){
+        return new ReactiveReads(url, username, password, poolSize);
+    }
+
+    @Bean
+    public ReactiveServer reactiveServer(ReactiveReads reactiveReads, ObjectMapper objectMapper,
+            @Value("${reactive.port:8081}") int port){
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        return new ReactiveServer(RouterFunctions.toHttpHandler(new ReactiveReadRoutes(reactiveReads, objectMapper).routes(), strategies), port);
+    }
+}
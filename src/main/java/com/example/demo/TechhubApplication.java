@@ -2,8 +2,10 @@ package com.example.demo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// The reactive reads build their own R2DBC pool: a ConnectionFactory bean would switch off the JPA DataSource
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class TechhubApplication{
 
 	public static void main(String[] args) {
@@ -2,11 +2,40 @@ package com.example.demo.controllers;
 
 import com.example.demo.repositories.*;
 import com.example.demo.entities.*;
+import com.example.demo.dto.AppointmentInterval;
+import com.example.demo.dto.AppointmentReference;
+import com.example.demo.dto.AppointmentSummary;
+import com.example.demo.dto.BookingResult;
+import com.example.demo.dto.CompactAppointment;
+import com.example.demo.dto.CompactSchedule;
+import com.example.demo.services.AppointmentIndex;
+import com.example.demo.services.AppointmentStore;
+import com.example.demo.services.BatchBooking;
+import com.example.demo.services.BulkDelete;
+import com.example.demo.services.RoomAvailability;
+import com.example.demo.services.RoomLocks;
+import com.example.demo.services.SlotLedger;
+import com.example.demo.services.TableExport;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
+import javax.persistence.Tuple;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,21 +45,172 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
 @RequestMapping("/api")
 public class AppointmentController {
 
+    static final String DELETED_COUNT = "X-Deleted-Count";
+
     @Autowired
     AppointmentRepository appointmentRepository;
 
+    @Autowired
+    PatientRepository patientRepository;
+
+    @Autowired
+    DoctorRepository doctorRepository;
+
+    @Autowired
+    TableExport tableExport;
+
+    @Autowired
+    AppointmentStore appointmentStore;
+
+    @Autowired
+    AppointmentIndex appointmentIndex;
+
+    @Autowired
+    RoomAvailability roomAvailability;
+
+    @Autowired
+    RoomLocks roomLocks;
+
+    @Autowired
+    SlotLedger slotLedger;
+
+    @Autowired
+    BatchBooking batchBooking;
+
+    @Autowired
+    BulkDelete bulkDelete;
+
     @GetMapping("/appointments")
-    public ResponseEntity<List<Appointment>> getAllAppointments(){
-        List<Appointment> appointments = new ArrayList<>();
+    public ResponseEntity<List<Appointment>> getAllAppointments(@RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "room", required = false) String roomName,
+            @RequestParam(value = "doctor", required = false) Long doctorId,
+            @RequestParam(value = "patient", required = false) Long patientId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime to,
+            @RequestParam(value = "view", required = false) String view){
+        // Other views have handlers of their own
+        if (view != null && !view.equals("full")){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return listAppointments(entities, after, limit, roomName, doctorId, patientId, from, to);
+    }
+
+    @GetMapping(value = "/appointments", params = {"view=summary", "!fields", "!ids"})
+    public ResponseEntity<List<AppointmentSummary>> getAppointmentSummaries(@RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "room", required = false) String roomName,
+            @RequestParam(value = "doctor", required = false) Long doctorId,
+            @RequestParam(value = "patient", required = false) Long patientId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime to){
+        return listAppointments(summaries, after, limit, roomName, doctorId, patientId, from, to);
+    }
+
+    /**
+     * Appointments with the ids of their patient and doctor instead of the
+     * entities. With include=patients and/or include=doctors the listing
+     * comes wrapped with those, each once however many appointments it has,
+     * in maps keyed by id; paging and filters are those of the other views.
+     */
+    @GetMapping(value = "/appointments", params = {"view=compact", "!fields", "!ids"})
+    public ResponseEntity<?> getCompactAppointments(@RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "room", required = false) String roomName,
+            @RequestParam(value = "doctor", required = false) Long doctorId,
+            @RequestParam(value = "patient", required = false) Long patientId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime to,
+            @RequestParam(value = "include", required = false) List<String> include){
+        boolean withPatients = false;
+        boolean withDoctors = false;
+        if (include != null){
+            for (String table : include){
+                if (table.equals("patients")){
+                    withPatients = true;
+                } else if (table.equals("doctors")){
+                    withDoctors = true;
+                } else {
+                    return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+                }
+            }
+        }
+        ResponseEntity<List<CompactAppointment>> listing = listAppointments(compacts, after, limit, roomName, doctorId, patientId, from, to);
+        List<CompactAppointment> appointments = listing.getBody();
+        if (appointments == null || !(withPatients || withDoctors)){
+            return listing;
+        }
+        CompactSchedule schedule = new CompactSchedule(appointments,
+                withPatients ? referenced(appointments, CompactAppointment::getPatientId, patientRepository::findAllById, Patient::getId) : null,
+                withDoctors ? referenced(appointments, CompactAppointment::getDoctorId, doctorRepository::findAllById, Doctor::getId) : null);
+        return new ResponseEntity<>(schedule, listing.getHeaders(), listing.getStatusCode());
+    }
 
-        appointmentRepository.findAll().forEach(appointments::add);
+    /**
+     * The given properties of each appointment, with those of its patient,
+     * doctor and room nested under them; paging and filters are those of the
+     * other views. The fields are picked from the full view, so no other view
+     * can be asked for with them.
+     */
+    @GetMapping(value = "/appointments", params = {"fields", "!ids"})
+    public ResponseEntity<List<Map<String, Object>>> getAppointmentFields(@RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "room", required = false) String roomName,
+            @RequestParam(value = "doctor", required = false) Long doctorId,
+            @RequestParam(value = "patient", required = false) Long patientId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime to,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam("fields") List<String> fields){
+        if (view != null && !view.equals("full")){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return SparseFields.list(Appointment.class, fields,
+                fieldset -> listAppointments(fieldsOf(fieldset), after, limit, roomName, doctorId, patientId, from, to));
+    }
+
+    /**
+     * The entities the appointments refer to, read in chunked IN queries and
+     * keyed by id in order of first reference.
+     */
+    private static <E> Map<Long, E> referenced(List<CompactAppointment> appointments, Function<CompactAppointment, Long> reference,
+            Function<Set<Long>, List<E>> findAllById, Function<E, Long> idOf){
+        List<Long> ids = new ArrayList<>();
+        for (CompactAppointment appointment : appointments){
+            Long id = reference.apply(appointment);
+            if (id != null){
+                ids.add(id);
+            }
+        }
+        return MultiGet.byKey(ids, findAllById, idOf);
+    }
+
+    private <T> ResponseEntity<List<T>> listAppointments(AppointmentQueries<T> queries, String after, Integer limit,
+            String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to){
+        if (roomName != null || doctorId != null || patientId != null || from != null || to != null){
+            if (from != null && to != null && !to.isAfter(from)){
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            // A filtered listing is always paged, so a wide filter cannot read the whole table
+            return getAppointmentPage((startsAt, id, pageable) -> queries.matching(roomName, doctorId, patientId, from, to,
+                    startsAt, id, pageable), queries::cursorOf, after, KeysetPage.limit(limit));
+        }
+        if (KeysetPage.isRequested(after, limit)){
+            return getAppointmentPage((startsAt, id, pageable) -> startsAt == null ? queries.firstPage(pageable)
+                    : queries.pageAfter(startsAt, id, pageable), queries::cursorOf, after, KeysetPage.limit(limit));
+        }
+        List<T> appointments = new ArrayList<>();
+
+        queries.all().forEach(appointments::add);
 
         if (appointments.isEmpty()){
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -39,6 +219,197 @@ public class AppointmentController {
         return new ResponseEntity<>(appointments, HttpStatus.OK);
     }
 
+    /**
+     * Appointments are paged in (startsAt, id) order. The cursor is opaque to
+     * clients: the last row's start and id, base64url encoded.
+     */
+    private <T> ResponseEntity<List<T>> getAppointmentPage(Seek<T> seek, Function<T, String> cursorOf, String after, int limit){
+        if (!KeysetPage.isValid(limit)){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (after == null){
+            return KeysetPage.of(seek.after(null, null, KeysetPage.lookahead(limit)), limit, cursorOf);
+        }
+        LocalDateTime startsAt;
+        long id;
+        try {
+            String[] key = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8).split(",", 2);
+            startsAt = LocalDateTime.parse(key[0]);
+            id = Long.parseLong(key[1]);
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return KeysetPage.of(seek.after(startsAt, id, KeysetPage.lookahead(limit)), limit, cursorOf);
+    }
+
+    /**
+     * The rows after the key (startsAt, id), or from the first if startsAt is
+     * null, up to the page size.
+     */
+    private interface Seek<T> {
+
+        List<T> after(LocalDateTime startsAt, Long id, Pageable pageable);
+    }
+
+    private static String cursorOf(LocalDateTime startsAt, long id){
+        String key = startsAt + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The queries behind one view of the appointment listing.
+     */
+    private interface AppointmentQueries<T> {
+
+        List<T> all();
+
+        List<T> matching(String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to,
+                LocalDateTime afterStartsAt, Long afterId, Pageable pageable);
+
+        List<T> firstPage(Pageable pageable);
+
+        List<T> pageAfter(LocalDateTime startsAt, long id, Pageable pageable);
+
+        String cursorOf(T row);
+    }
+
+    private final AppointmentQueries<Appointment> entities = new AppointmentQueries<Appointment>() {
+
+        @Override
+        public List<Appointment> all(){
+            return appointmentRepository.findAll();
+        }
+
+        @Override
+        public List<Appointment> matching(String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to,
+                LocalDateTime afterStartsAt, Long afterId, Pageable pageable){
+            return appointmentRepository.findMatching(roomName, doctorId, patientId, from, to, afterStartsAt, afterId, pageable);
+        }
+
+        @Override
+        public List<Appointment> firstPage(Pageable pageable){
+            return appointmentRepository.findFirstPage(pageable);
+        }
+
+        @Override
+        public List<Appointment> pageAfter(LocalDateTime startsAt, long id, Pageable pageable){
+            return appointmentRepository.findPageAfter(startsAt, id, pageable);
+        }
+
+        @Override
+        public String cursorOf(Appointment appointment){
+            return AppointmentController.cursorOf(appointment.getStartsAt(), appointment.getId());
+        }
+    };
+
+    private final AppointmentQueries<AppointmentSummary> summaries = new AppointmentQueries<AppointmentSummary>() {
+
+        @Override
+        public List<AppointmentSummary> all(){
+            return appointmentRepository.findAllSummaries();
+        }
+
+        @Override
+        public List<AppointmentSummary> matching(String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to,
+                LocalDateTime afterStartsAt, Long afterId, Pageable pageable){
+            return appointmentRepository.findSummaries(roomName, doctorId, patientId, from, to, afterStartsAt, afterId, pageable);
+        }
+
+        @Override
+        public List<AppointmentSummary> firstPage(Pageable pageable){
+            return appointmentRepository.findFirstSummaryPage(pageable);
+        }
+
+        @Override
+        public List<AppointmentSummary> pageAfter(LocalDateTime startsAt, long id, Pageable pageable){
+            return appointmentRepository.findSummaryPageAfter(startsAt, id, pageable);
+        }
+
+        @Override
+        public String cursorOf(AppointmentSummary summary){
+            return AppointmentController.cursorOf(summary.getStartsAt(), summary.getId());
+        }
+    };
+
+    private final AppointmentQueries<CompactAppointment> compacts = new AppointmentQueries<CompactAppointment>() {
+
+        @Override
+        public List<CompactAppointment> all(){
+            return appointmentRepository.findAllCompact();
+        }
+
+        @Override
+        public List<CompactAppointment> matching(String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to,
+                LocalDateTime afterStartsAt, Long afterId, Pageable pageable){
+            return appointmentRepository.findCompact(roomName, doctorId, patientId, from, to, afterStartsAt, afterId, pageable);
+        }
+
+        @Override
+        public List<CompactAppointment> firstPage(Pageable pageable){
+            return appointmentRepository.findFirstCompactPage(pageable);
+        }
+
+        @Override
+        public List<CompactAppointment> pageAfter(LocalDateTime startsAt, long id, Pageable pageable){
+            return appointmentRepository.findCompactPageAfter(startsAt, id, pageable);
+        }
+
+        @Override
+        public String cursorOf(CompactAppointment appointment){
+            return AppointmentController.cursorOf(appointment.getStartsAt(), appointment.getId());
+        }
+    };
+
+    /**
+     * The appointments with the given ids, in full, in the order asked for.
+     */
+    @GetMapping(value = "/appointments", params = "ids")
+    public ResponseEntity<List<Appointment>> getAppointmentsById(@RequestParam("ids") List<Long> ids,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "fields", required = false) List<String> fields){
+        if ((view != null && !view.equals("full")) || fields != null){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return MultiGet.of(ids, appointmentRepository::findAllById, Appointment::getId);
+    }
+
+    private AppointmentQueries<Tuple> fieldsOf(Fieldset fieldset){
+        return new AppointmentQueries<Tuple>() {
+
+            @Override
+            public List<Tuple> all(){
+                return appointmentRepository.findAllFields(fieldset);
+            }
+
+            @Override
+            public List<Tuple> matching(String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to,
+                    LocalDateTime afterStartsAt, Long afterId, Pageable pageable){
+                return appointmentRepository.findMatchingFields(fieldset, roomName, doctorId, patientId, from, to,
+                        afterStartsAt, afterId, pageable);
+            }
+
+            @Override
+            public List<Tuple> firstPage(Pageable pageable){
+                return appointmentRepository.findFirstFieldsPage(fieldset, pageable);
+            }
+
+            @Override
+            public List<Tuple> pageAfter(LocalDateTime startsAt, long id, Pageable pageable){
+                return appointmentRepository.findFieldsPageAfter(fieldset, startsAt, id, pageable);
+            }
+
+            @Override
+            public String cursorOf(Tuple row){
+                return AppointmentController.cursorOf((LocalDateTime) fieldset.get(row, "startsAt"), (Long) fieldset.get(row, "id"));
+            }
+        };
+    }
+
+    @GetMapping("/appointments/export")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(@RequestParam(value = "format", defaultValue = "json") String format){
+        return ExportResponse.of(format, tableExport::appointments);
+    }
+
     @GetMapping("/appointments/{id}")
     public ResponseEntity<Appointment> getAppointmentById(@PathVariable("id") long id){
         Optional<Appointment> appointment = appointmentRepository.findById(id);
@@ -50,41 +421,127 @@ public class AppointmentController {
         }
     }
 
+    @GetMapping(value = "/appointments/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getAppointmentFieldsById(@PathVariable("id") long id,
+            @RequestParam("fields") List<String> fields){
+        return SparseFields.one(Appointment.class, fields, fieldset -> appointmentRepository.findFieldsById(fieldset, id));
+    }
+
     @PostMapping("/appointment")
     public ResponseEntity<List<Appointment>> createAppointment(@RequestBody Appointment newAppointment) {
-        // Obtención de todas las citas existentes
-        List<Appointment> existingAppointments = appointmentRepository.findAll();
+        return book(newAppointment, appointmentStore::save);
+    }
+
+    @PostMapping("/appointment/by-reference")
+    public ResponseEntity<List<Appointment>> createAppointmentByReference(@RequestBody AppointmentReference reference) {
+        if (!reference.isComplete()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return book(reference.toAppointment(), appointmentStore::saveByReference);
+        } catch (DataIntegrityViolationException e) {
+            // No such patient, doctor or room
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
 
+    private ResponseEntity<List<Appointment>> book(Appointment newAppointment, UnaryOperator<Appointment> save) {
         if (!newAppointment.getFinishesAt().isAfter(newAppointment.getStartsAt())) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-        } else {
-            for (Appointment existingAppointment : existingAppointments) {
-                // Check overlaps
-                if (existingAppointment.overlaps(newAppointment)) {
+        }
+        // Same-room bookings are serialized from the check until the index is updated
+        Lock lock = roomLocks.forRoom(newAppointment.getRoom() == null ? null : newAppointment.getRoom().getRoomName());
+        lock.lock();
+        try {
+            // The room's day bitmaps clear most bookings without a round trip. A hit is
+            // only a hint, as they miss deletes made by other instances
+            boolean checked = false;
+            if (roomAvailability.conflicts(newAppointment)) {
+                if (overlapsInDatabase(newAppointment)) {
                     return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE); // Conflicto de tiempo y sala
                 }
+                forgetStale(newAppointment);
+                checked = true;
+            }
+            if (slotLedger.isEnabled() && newAppointment.getRoom() != null) {
+                // The room_slot unique key rejects the conflict on insert
+                slotLedger.reserve(newAppointment);
+            } else if (!checked && overlapsInDatabase(newAppointment)) {
+                // The indexed query sees every instance's writes
+                return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
+            }
+            // Save in DB
+            try {
+                save.apply(newAppointment);
+            } catch (DataIntegrityViolationException e) {
+                if (SlotLedger.isSlotConflict(e)) {
+                    return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
+                }
+                throw e;
             }
+            appointmentIndex.add(newAppointment);
+            roomAvailability.add(newAppointment);
+        } finally {
+            lock.unlock();
         }
-        // Save in DB
-        appointmentRepository.save(newAppointment);
         return new ResponseEntity<>(HttpStatus.OK);
     }
+
+    @PostMapping("/appointments/batch")
+    public ResponseEntity<List<BookingResult>> createAppointments(@RequestBody List<Appointment> newAppointments,
+            @RequestParam(value = "mode", defaultValue = "best-effort") String mode) {
+        if (newAppointments.isEmpty() || !(mode.equals("best-effort") || mode.equals("all-or-nothing"))) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        boolean allOrNothing = mode.equals("all-or-nothing");
+        List<BookingResult> results = batchBooking.book(newAppointments, allOrNothing);
+
+        if (allOrNothing && results.stream().anyMatch(result -> !result.isAccepted())) {
+            return new ResponseEntity<>(results, HttpStatus.NOT_ACCEPTABLE);
+        }
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    private boolean overlapsInDatabase(Appointment appointment){
+        return appointment.getRoom() != null && appointmentRepository.existsOverlapping(
+                appointment.getRoom().getRoomName(), appointment.getStartsAt(), appointment.getFinishesAt());
+    }
+
+    /**
+     * Drops from the index and the bitmaps the appointments overlapping one
+     * the database has just found free, i.e. deleted by another instance.
+     */
+    private void forgetStale(Appointment appointment){
+        for (AppointmentInterval stale : appointmentIndex.intervals(appointment.getRoom().getRoomName(),
+                appointment.getStartsAt(), appointment.getFinishesAt())){
+            // The index rounds to whole minutes, the database does not
+            if (stale.overlaps(appointment.getStartsAt(), appointment.getFinishesAt()) && appointmentIndex.remove(stale.getId()) != null){
+                roomAvailability.remove(stale);
+            }
+        }
+    }
+
     @DeleteMapping("/appointments/{id}")
     public ResponseEntity<HttpStatus> deleteAppointment(@PathVariable("id") long id){
-
-        Optional<Appointment> appointment = appointmentRepository.findById(id);
-        if (!appointment.isPresent()){
+        if (!bulkDelete.appointment(id)){
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        appointmentRepository.deleteById(id);
-
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
     @DeleteMapping("/appointments")
     public ResponseEntity<HttpStatus> deleteAllAppointments(){
-        appointmentRepository.deleteAll();
+        bulkDelete.allAppointments();
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
+    @DeleteMapping(value = "/appointments", params = "before")
+    public ResponseEntity<HttpStatus> deleteAppointmentsBefore(
+            @RequestParam("before") @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime before){
+        long deleted = bulkDelete.appointmentsBefore(before);
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(DELETED_COUNT, String.valueOf(deleted));
+        return new ResponseEntity<>(headers, HttpStatus.OK);
+    }
+
 }
@@ -0,0 +1,56 @@
+package com.example.demo.controllers;
+
+import com.example.demo.dto.CacheStatistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+
+@RestController
+@RequestMapping("/api")
+public class CacheController {
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @GetMapping("/cache/statistics")
+    public ResponseEntity<List<CacheStatistics>> getCacheStatistics(){
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String[] regions = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regions);
+
+        List<CacheStatistics> regionStatistics = new ArrayList<>();
+        for (String region : regions){
+            CacheRegionStatistics counts = statistics.getCacheRegionStatistics(region);
+            if (counts != null){
+                regionStatistics.add(new CacheStatistics(region, counts.getHitCount(), counts.getMissCount(), counts.getPutCount()));
+            }
+        }
+
+        // Query result regions are counted apart from the entity ones
+        CacheRegionStatistics queries = statistics.getQueryRegionStatistics(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+        if (queries != null){
+            regionStatistics.add(new CacheStatistics(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                    queries.getHitCount(), queries.getMissCount(), queries.getPutCount()));
+        }
+
+        if (regionStatistics.isEmpty()){
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(regionStatistics, HttpStatus.OK);
+    }
+}
@@ -2,11 +2,18 @@ package com.example.demo.controllers;
 
 import com.example.demo.repositories.*;
 import com.example.demo.entities.Doctor;
+import com.example.demo.services.BatchInsert;
+import com.example.demo.services.BulkDelete;
+import com.example.demo.services.TableExport;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,7 +23,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
@@ -26,8 +35,22 @@ public class DoctorController {
     @Autowired
     DoctorRepository doctorRepository;
 
+    @Autowired
+    TableExport tableExport;
+
+    @Autowired
+    BulkDelete bulkDelete;
+
+    @Autowired
+    BatchInsert batchInsert;
+
     @GetMapping("/doctors")
-    public ResponseEntity<List<Doctor>> getAllDoctors(){
+    public ResponseEntity<List<Doctor>> getAllDoctors(@RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit){
+        if (KeysetPage.isRequested(after, limit)){
+            return getDoctorPage(after, KeysetPage.limit(limit), doctorRepository::findByIdGreaterThanOrderByIdAsc,
+                    doctor -> String.valueOf(doctor.getId()));
+        }
         List<Doctor> doctors = new ArrayList<>();
 
         doctorRepository.findAll().forEach(doctors::add);
@@ -39,6 +62,48 @@ public class DoctorController {
         return new ResponseEntity<>(doctors, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/doctors", params = {"fields", "!ids"})
+    public ResponseEntity<List<Map<String, Object>>> getDoctorFields(@RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam("fields") List<String> fields){
+        return SparseFields.list(Doctor.class, fields, fieldset -> {
+            if (KeysetPage.isRequested(after, limit)){
+                return getDoctorPage(after, KeysetPage.limit(limit),
+                        (afterId, pageable) -> doctorRepository.findFieldsAfter(fieldset, afterId, pageable),
+                        row -> String.valueOf(fieldset.get(row, "id")));
+            }
+            return SparseFields.all(doctorRepository.findAllFields(fieldset));
+        });
+    }
+
+    @GetMapping(value = "/doctors", params = "ids")
+    public ResponseEntity<List<Doctor>> getDoctorsById(@RequestParam("ids") List<Long> ids,
+            @RequestParam(value = "fields", required = false) List<String> fields){
+        if (fields != null){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return MultiGet.of(ids, doctorRepository::findAllById, Doctor::getId);
+    }
+
+    private <T> ResponseEntity<List<T>> getDoctorPage(String after, int limit, BiFunction<Long, Pageable, List<T>> seek,
+            Function<T, String> cursorOf){
+        long afterId;
+        try {
+            afterId = after == null ? Long.MIN_VALUE : Long.parseLong(after);
+        } catch (NumberFormatException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (!KeysetPage.isValid(limit)){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return KeysetPage.of(seek.apply(afterId, KeysetPage.lookahead(limit)), limit, cursorOf);
+    }
+
+    @GetMapping("/doctors/export")
+    public ResponseEntity<StreamingResponseBody> exportDoctors(@RequestParam(value = "format", defaultValue = "json") String format){
+        return ExportResponse.of(format, tableExport::doctors);
+    }
+
     @GetMapping("/doctors/{id}")
     public ResponseEntity<Doctor> getDoctorById(@PathVariable("id") long id){
         Optional<Doctor> doctor = doctorRepository.findById(id);
@@ -49,6 +114,11 @@ public class DoctorController {
         return new ResponseEntity<>(doctor.get(),HttpStatus.OK);
     }
 
+    @GetMapping(value = "/doctors/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getDoctorFieldsById(@PathVariable("id") long id, @RequestParam("fields") List<String> fields){
+        return SparseFields.one(Doctor.class, fields, fieldset -> doctorRepository.findFieldsById(fieldset, id));
+    }
+
     @PostMapping("/doctor")
     public ResponseEntity<Doctor> createDoctor(@RequestBody Doctor doc){
         Doctor d = new Doctor(doc.getFirstName(), doc.getLastName(), doc.getAge(), doc.getEmail());
@@ -56,21 +126,29 @@ public class DoctorController {
         return new ResponseEntity<>(d, HttpStatus.CREATED);
     }
 
+    @PostMapping("/doctors/batch")
+    public ResponseEntity<List<Doctor>> createDoctors(@RequestBody List<Doctor> docs){
+        if (docs.isEmpty()){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<Doctor> doctors = new ArrayList<>(docs.size());
+        for (Doctor doc : docs){
+            doctors.add(new Doctor(doc.getFirstName(), doc.getLastName(), doc.getAge(), doc.getEmail()));
+        }
+        return new ResponseEntity<>(batchInsert.insert(doctors), HttpStatus.CREATED);
+    }
+
     @DeleteMapping("/doctors/{id}")
     public ResponseEntity<HttpStatus> deleteDoctor(@PathVariable("id") long id){
-        Optional<Doctor> doctor = doctorRepository.findById(id);
-
-        if (! doctor.isPresent()){
+        if (doctorRepository.deleteWithId(id) == 0){
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-
-        doctorRepository.deleteById(id);
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
     @DeleteMapping("/doctors")
     public ResponseEntity<HttpStatus> deleteAllDoctors(){
-        doctorRepository.deleteAll();
+        bulkDelete.allDoctors();
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
@@ -0,0 +1,27 @@
+package com.example.demo.controllers;
+
+import java.util.function.Function;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.demo.services.TableExport;
+
+/**
+ * The response of the ?format=json|ndjson export endpoints. The body is
+ * written after the handler returns, on an async thread.
+ */
+final class ExportResponse {
+
+    private ExportResponse(){
+    }
+
+    static ResponseEntity<StreamingResponseBody> of(String format, Function<TableExport.Format, StreamingResponseBody> export){
+        TableExport.Format exportFormat = TableExport.Format.of(format);
+        if (exportFormat == null){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(export.apply(exportFormat));
+    }
+}
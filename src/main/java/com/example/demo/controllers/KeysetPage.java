@@ -0,0 +1,65 @@
+package com.example.demo.controllers;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Keyset pagination for the listing endpoints. A page is requested with
+ * ?after=&lt;cursor&gt;&amp;limit=n and the repository seeks past the cursor
+ * on an indexed key, so any page costs the same as the first one.
+ *
+ * One row more than the limit is read to tell whether there is a next page;
+ * if so, its cursor goes in the X-Next-Cursor header and the full URL in a
+ * Link rel="next" header, so a client can walk the whole table.
+ */
+final class KeysetPage {
+
+    static final String NEXT_CURSOR = "X-Next-Cursor";
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+
+    private KeysetPage(){
+    }
+
+    static boolean isRequested(String after, Integer limit){
+        return after != null || limit != null;
+    }
+
+    static int limit(Integer limit){
+        return limit == null ? DEFAULT_LIMIT : limit;
+    }
+
+    static boolean isValid(int limit){
+        return limit > 0 && limit <= MAX_LIMIT;
+    }
+
+    static Pageable lookahead(int limit){
+        return PageRequest.of(0, limit + 1);
+    }
+
+    static <T> ResponseEntity<List<T>> of(List<T> rows, int limit, Function<T, String> cursorOf){
+        if (rows.isEmpty()){
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        if (rows.size() <= limit){
+            return new ResponseEntity<>(rows, HttpStatus.OK);
+        }
+        List<T> page = rows.subList(0, limit);
+        String cursor = cursorOf.apply(page.get(limit - 1));
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("after", cursor)
+                .replaceQueryParam("limit", limit)
+                .encode().toUriString();
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(NEXT_CURSOR, cursor);
+        headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        return new ResponseEntity<>(page, headers, HttpStatus.OK);
+    }
+}
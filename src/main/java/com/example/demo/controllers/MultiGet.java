@@ -0,0 +1,87 @@
+package com.example.demo.controllers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Multi-get for the read endpoints: ?ids=1,2,3 answers with every row asked
+ * for, each once and in the order first asked, read with IN queries of up to
+ * CHUNK_SIZE keys instead of one query per key. Keys with no row are listed
+ * in the X-Missing-Ids header; if none has one the response is a 204.
+ */
+final class MultiGet {
+
+    static final String MISSING_IDS = "X-Missing-Ids";
+    static final int MAX_KEYS = 1000;
+    static final int CHUNK_SIZE = 500;
+
+    private MultiGet(){
+    }
+
+    static <K, E> ResponseEntity<List<E>> of(List<K> keys, Function<Set<K>, List<E>> findAll, Function<E, K> keyOf){
+        if (keys.isEmpty() || keys.size() > MAX_KEYS || keys.contains(null)){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        Map<K, E> found = byKey(keys, findAll, keyOf);
+        HttpHeaders headers = new HttpHeaders();
+        StringJoiner missing = new StringJoiner(",");
+        for (K key : new LinkedHashSet<>(keys)){
+            if (!found.containsKey(key)){
+                missing.add(String.valueOf(key));
+            }
+        }
+        if (missing.length() > 0){
+            headers.add(MISSING_IDS, missing.toString());
+        }
+        if (found.isEmpty()){
+            return new ResponseEntity<>(headers, HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(new ArrayList<>(found.values()), headers, HttpStatus.OK);
+    }
+
+    /**
+     * The rows with the given keys, keyed in the order first given. Keys with
+     * no row are left out.
+     */
+    static <K, E> Map<K, E> byKey(Collection<K> keys, Function<Set<K>, List<E>> findAll, Function<E, K> keyOf){
+        Set<K> distinct = new LinkedHashSet<>(keys);
+        Map<K, E> loaded = new HashMap<>();
+        Set<K> chunk = new LinkedHashSet<>();
+        for (K key : distinct){
+            chunk.add(key);
+            if (chunk.size() == CHUNK_SIZE){
+                load(chunk, findAll, keyOf, loaded);
+                chunk = new LinkedHashSet<>();
+            }
+        }
+        if (!chunk.isEmpty()){
+            load(chunk, findAll, keyOf, loaded);
+        }
+        Map<K, E> rows = new LinkedHashMap<>();
+        for (K key : distinct){
+            E row = loaded.get(key);
+            if (row != null){
+                rows.put(key, row);
+            }
+        }
+        return rows;
+    }
+
+    private static <K, E> void load(Set<K> chunk, Function<Set<K>, List<E>> findAll, Function<E, K> keyOf, Map<K, E> loaded){
+        for (E row : findAll.apply(chunk)){
+            loaded.put(keyOf.apply(row), row);
+        }
+    }
+}
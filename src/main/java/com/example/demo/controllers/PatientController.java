@@ -3,11 +3,18 @@ package com.example.demo.controllers;
 
 import com.example.demo.repositories.*;
 import com.example.demo.entities.Patient;
+import com.example.demo.services.BatchInsert;
+import com.example.demo.services.BulkDelete;
+import com.example.demo.services.TableExport;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,7 +24,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
@@ -27,8 +36,22 @@ public class PatientController {
     @Autowired
     PatientRepository patientRepository;
 
+    @Autowired
+    TableExport tableExport;
+
+    @Autowired
+    BulkDelete bulkDelete;
+
+    @Autowired
+    BatchInsert batchInsert;
+
     @GetMapping("/patients")
-    public ResponseEntity<List<Patient>> getAllPatients(){
+    public ResponseEntity<List<Patient>> getAllPatients(@RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit){
+        if (KeysetPage.isRequested(after, limit)){
+            return getPatientPage(after, KeysetPage.limit(limit), patientRepository::findByIdGreaterThanOrderByIdAsc,
+                    patient -> String.valueOf(patient.getId()));
+        }
         List<Patient> patients = new ArrayList<>();
 
         patientRepository.findAll().forEach(patients::add);
@@ -40,6 +63,48 @@ public class PatientController {
         return new ResponseEntity<>(patients, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/patients", params = {"fields", "!ids"})
+    public ResponseEntity<List<Map<String, Object>>> getPatientFields(@RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam("fields") List<String> fields){
+        return SparseFields.list(Patient.class, fields, fieldset -> {
+            if (KeysetPage.isRequested(after, limit)){
+                return getPatientPage(after, KeysetPage.limit(limit),
+                        (afterId, pageable) -> patientRepository.findFieldsAfter(fieldset, afterId, pageable),
+                        row -> String.valueOf(fieldset.get(row, "id")));
+            }
+            return SparseFields.all(patientRepository.findAllFields(fieldset));
+        });
+    }
+
+    @GetMapping(value = "/patients", params = "ids")
+    public ResponseEntity<List<Patient>> getPatientsById(@RequestParam("ids") List<Long> ids,
+            @RequestParam(value = "fields", required = false) List<String> fields){
+        if (fields != null){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return MultiGet.of(ids, patientRepository::findAllById, Patient::getId);
+    }
+
+    private <T> ResponseEntity<List<T>> getPatientPage(String after, int limit, BiFunction<Long, Pageable, List<T>> seek,
+            Function<T, String> cursorOf){
+        long afterId;
+        try {
+            afterId = after == null ? Long.MIN_VALUE : Long.parseLong(after);
+        } catch (NumberFormatException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (!KeysetPage.isValid(limit)){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return KeysetPage.of(seek.apply(afterId, KeysetPage.lookahead(limit)), limit, cursorOf);
+    }
+
+    @GetMapping("/patients/export")
+    public ResponseEntity<StreamingResponseBody> exportPatients(@RequestParam(value = "format", defaultValue = "json") String format){
+        return ExportResponse.of(format, tableExport::patients);
+    }
+
     @GetMapping("/patients/{id}")
     public ResponseEntity<Patient> getPatientById(@PathVariable("id") long id){
         Optional<Patient> patient = patientRepository.findById(id);
@@ -49,6 +114,11 @@ public class PatientController {
         return new ResponseEntity<>(patient.get(),HttpStatus.OK);
     }
 
+    @GetMapping(value = "/patients/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getPatientFieldsById(@PathVariable("id") long id, @RequestParam("fields") List<String> fields){
+        return SparseFields.one(Patient.class, fields, fieldset -> patientRepository.findFieldsById(fieldset, id));
+    }
+
     @PostMapping("/patient")
     public ResponseEntity<Patient> createPatient(@RequestBody Patient pat){
         Patient d = new Patient(pat.getFirstName(), pat.getLastName(), pat.getAge(), pat.getEmail());
@@ -56,19 +126,29 @@ public class PatientController {
         return new ResponseEntity<>(d, HttpStatus.CREATED);
     }
 
+    @PostMapping("/patients/batch")
+    public ResponseEntity<List<Patient>> createPatients(@RequestBody List<Patient> pats){
+        if (pats.isEmpty()){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<Patient> patients = new ArrayList<>(pats.size());
+        for (Patient pat : pats){
+            patients.add(new Patient(pat.getFirstName(), pat.getLastName(), pat.getAge(), pat.getEmail()));
+        }
+        return new ResponseEntity<>(batchInsert.insert(patients), HttpStatus.CREATED);
+    }
+
     @DeleteMapping("/patients/{id}")
     public ResponseEntity<HttpStatus> deletePatient(@PathVariable("id") long id){
-        Optional<Patient> patient = patientRepository.findById(id);
-        if (! patient.isPresent()){
+        if (patientRepository.deleteWithId(id) == 0){
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        patientRepository.deleteById(id);
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
     @DeleteMapping("/patients")
     public ResponseEntity<HttpStatus> deleteAllPatients(){
-        patientRepository.deleteAll();
+        bulkDelete.allPatients();
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
@@ -3,20 +3,32 @@ package com.example.demo.controllers;
 
 import com.example.demo.repositories.*;
 import com.example.demo.entities.Room;
+import com.example.demo.dto.FreeSlot;
+import com.example.demo.services.AppointmentIndex;
+import com.example.demo.services.RoomAvailability;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import javax.persistence.Tuple;
+
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 
@@ -27,8 +39,25 @@ public class RoomController {
     @Autowired
     RoomRepository roomRepository;
 
+    @Autowired
+    AppointmentIndex appointmentIndex;
+
+    @Autowired
+    RoomAvailability roomAvailability;
+
     @GetMapping("/rooms")
-    public ResponseEntity<List<Room>> getAllRooms(){
+    public ResponseEntity<List<Room>> getAllRooms(@RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit){
+        if (KeysetPage.isRequested(after, limit)){
+            int pageLimit = KeysetPage.limit(limit);
+            if (!KeysetPage.isValid(pageLimit)){
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            // Every room name sorts after the empty string
+            List<Room> page = roomRepository.findByRoomNameGreaterThanOrderByRoomNameAsc(after == null ? "" : after,
+                    KeysetPage.lookahead(pageLimit));
+            return KeysetPage.of(page, pageLimit, Room::getRoomName);
+        }
         List<Room> rooms = new ArrayList<>();
 
         roomRepository.findAll().forEach(rooms::add);
@@ -40,6 +69,32 @@ public class RoomController {
         return new ResponseEntity<>(rooms, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/rooms", params = {"fields", "!names"})
+    public ResponseEntity<List<Map<String, Object>>> getRoomFields(@RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam("fields") List<String> fields){
+        return SparseFields.list(Room.class, fields, fieldset -> {
+            if (KeysetPage.isRequested(after, limit)){
+                int pageLimit = KeysetPage.limit(limit);
+                if (!KeysetPage.isValid(pageLimit)){
+                    return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+                }
+                List<Tuple> page = roomRepository.findFieldsAfter(fieldset, after == null ? "" : after, KeysetPage.lookahead(pageLimit));
+                return KeysetPage.of(page, pageLimit, row -> (String) fieldset.get(row, "roomName"));
+            }
+            return SparseFields.all(roomRepository.findAllFields(fieldset));
+        });
+    }
+
+    @GetMapping(value = "/rooms", params = "names")
+    public ResponseEntity<List<Room>> getRoomsByRoomName(@RequestParam("names") List<String> roomNames,
+            @RequestParam(value = "fields", required = false) List<String> fields){
+        if (fields != null){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return MultiGet.of(roomNames, roomRepository::findByRoomNameIn, Room::getRoomName);
+    }
+
     @GetMapping("/rooms/{roomName}")
     public ResponseEntity<Room> getRoomByRoomName(@PathVariable("roomName") String roomName){
         Optional<Room> room = roomRepository.findByRoomName(roomName);
@@ -49,6 +104,42 @@ public class RoomController {
         return new ResponseEntity<>(room.get(), HttpStatus.OK);
     }
 
+    @GetMapping(value = "/rooms/{roomName}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getRoomFieldsByRoomName(@PathVariable("roomName") String roomName,
+            @RequestParam("fields") List<String> fields){
+        return SparseFields.one(Room.class, fields, fieldset -> roomRepository.findFieldsByRoomName(fieldset, roomName));
+    }
+
+    @GetMapping("/rooms/free-slots")
+    public ResponseEntity<List<FreeSlot>> getFreeSlots(@RequestParam("duration") long duration,
+            @RequestParam("from") @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime from,
+            @RequestParam("to") @DateTimeFormat(pattern = "HH:mm dd/MM/yyyy") LocalDateTime to,
+            @RequestParam(value = "room", required = false) String roomName,
+            @RequestParam(value = "limit", defaultValue = "10") int limit){
+        if (duration <= 0 || limit <= 0 || !to.isAfter(from)){
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<String> roomNames = new ArrayList<>();
+        if (roomName != null){
+            roomNames.add(roomName);
+        } else {
+            roomRepository.findAll().forEach(room -> roomNames.add(room.getRoomName()));
+        }
+
+        List<FreeSlot> slots = appointmentIndex.freeSlots(roomNames, from, to, Duration.ofMinutes(duration), limit);
+        if (slots.isEmpty()){
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(slots, HttpStatus.OK);
+    }
+
+    @GetMapping("/rooms/{roomName}/availability")
+    public ResponseEntity<List<FreeSlot>> getRoomAvailability(@PathVariable("roomName") String roomName,
+            @RequestParam("date") @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate date){
+        // Answered from the occupancy bitmaps only, without touching the database
+        return new ResponseEntity<>(roomAvailability.freeSlots(roomName, date), HttpStatus.OK);
+    }
+
     @PostMapping("/room")
     public ResponseEntity<Room> createRoom(@RequestBody Room room){
         Room tmp = new Room(room.getRoomName());
@@ -58,17 +149,16 @@ public class RoomController {
 
     @DeleteMapping("/rooms/{roomName}")
     public ResponseEntity<HttpStatus> deleteRoom(@PathVariable("roomName") String roomName){
-        Optional<Room> room = roomRepository.findByRoomName(roomName);
-        if (! room.isPresent()){
+        if (roomRepository.deleteWithRoomName(roomName) == 0){
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-        roomRepository.deleteByRoomName(roomName);
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
     @DeleteMapping("/rooms")
     public ResponseEntity<HttpStatus> deleteAllRooms(){
-        roomRepository.deleteAll();
+        // Rooms are few, a single statement does
+        roomRepository.deleteAllInBatch();
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
@@ -0,0 +1,69 @@
+package com.example.demo.controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import javax.persistence.Tuple;
+
+import com.example.demo.repositories.Fieldset;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Sparse fieldsets for the read endpoints. With ?fields=id,email only those
+ * columns are read, in a tuple query instead of loading the entities, and
+ * only those properties are written. A name that is not a property of the
+ * entity is a 400.
+ *
+ * Listings page and filter as without fields: the query builds the response
+ * from the tuples, and its status and headers are kept.
+ */
+final class SparseFields {
+
+    private SparseFields(){
+    }
+
+    static ResponseEntity<List<Map<String, Object>>> list(Class<?> entity, List<String> fields,
+            Function<Fieldset, ResponseEntity<List<Tuple>>> query){
+        Fieldset fieldset;
+        try {
+            fieldset = Fieldset.of(entity, fields);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        ResponseEntity<List<Tuple>> rows = query.apply(fieldset);
+        if (rows.getBody() == null){
+            return new ResponseEntity<>(rows.getHeaders(), rows.getStatusCode());
+        }
+        List<Map<String, Object>> values = new ArrayList<>(rows.getBody().size());
+        for (Tuple row : rows.getBody()){
+            values.add(fieldset.toMap(row));
+        }
+        return new ResponseEntity<>(values, rows.getHeaders(), rows.getStatusCode());
+    }
+
+    static ResponseEntity<Map<String, Object>> one(Class<?> entity, List<String> fields, Function<Fieldset, Optional<Tuple>> query){
+        Fieldset fieldset;
+        try {
+            fieldset = Fieldset.of(entity, fields);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        Optional<Tuple> row = query.apply(fieldset);
+        if (!row.isPresent()){
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(fieldset.toMap(row.get()), HttpStatus.OK);
+    }
+
+    static ResponseEntity<List<Tuple>> all(List<Tuple> rows){
+        if (rows.isEmpty()){
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(rows, HttpStatus.OK);
+    }
+}
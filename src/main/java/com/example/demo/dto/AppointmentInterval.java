@@ -0,0 +1,49 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.entities.Appointment;
+
+/**
+ * The part of an appointment that matters for scheduling: which room it
+ * occupies and for how long. Loaded without joining patients or doctors.
+ */
+public class AppointmentInterval {
+
+    private final long id;
+    private final String roomName;
+    private final LocalDateTime startsAt;
+    private final LocalDateTime finishesAt;
+
+    public AppointmentInterval(long id, String roomName, LocalDateTime startsAt, LocalDateTime finishesAt){
+        this.id = id;
+        this.roomName = roomName;
+        this.startsAt = startsAt;
+        this.finishesAt = finishesAt;
+    }
+
+    public static AppointmentInterval of(Appointment appointment){
+        return new AppointmentInterval(appointment.getId(), appointment.getRoom().getRoomName(),
+                appointment.getStartsAt(), appointment.getFinishesAt());
+    }
+
+    public long getId(){
+        return this.id;
+    }
+
+    public String getRoomName(){
+        return this.roomName;
+    }
+
+    public LocalDateTime getStartsAt(){
+        return this.startsAt;
+    }
+
+    public LocalDateTime getFinishesAt(){
+        return this.finishesAt;
+    }
+
+    public boolean overlaps(LocalDateTime startsAt, LocalDateTime finishesAt){
+        return this.startsAt.isBefore(finishesAt) && startsAt.isBefore(this.finishesAt);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+import com.example.demo.entities.Room;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * A new appointment that names its patient, doctor and room by key instead of
+ * carrying them, for bookings of stored patients, doctors and rooms.
+ */
+public class AppointmentReference {
+
+    private Long patientId;
+    private Long doctorId;
+    private String roomName;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    private LocalDateTime startsAt;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    private LocalDateTime finishesAt;
+
+    public AppointmentReference(){
+        super();
+    }
+
+    public AppointmentReference(long patientId, long doctorId, String roomName, LocalDateTime startsAt, LocalDateTime finishesAt){
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.roomName = roomName;
+        this.startsAt = startsAt;
+        this.finishesAt = finishesAt;
+    }
+
+    public boolean isComplete(){
+        return patientId != null && doctorId != null && roomName != null && startsAt != null && finishesAt != null;
+    }
+
+    /**
+     * An appointment whose patient, doctor and room hold only their keys.
+     */
+    public Appointment toAppointment(){
+        Patient patient = new Patient();
+        patient.setId(patientId);
+        Doctor doctor = new Doctor();
+        doctor.setId(doctorId);
+        return new Appointment(patient, doctor, new Room(roomName), startsAt, finishesAt);
+    }
+
+    public Long getPatientId(){
+        return this.patientId;
+    }
+    public void setPatientId(Long patientId){
+        this.patientId = patientId;
+    }
+
+    public Long getDoctorId(){
+        return this.doctorId;
+    }
+    public void setDoctorId(Long doctorId){
+        this.doctorId = doctorId;
+    }
+
+    public String getRoomName(){
+        return this.roomName;
+    }
+    public void setRoomName(String roomName){
+        this.roomName = roomName;
+    }
+
+    public LocalDateTime getStartsAt(){
+        return this.startsAt;
+    }
+    public void setStartsAt(LocalDateTime startsAt){
+        this.startsAt = startsAt;
+    }
+
+    public LocalDateTime getFinishesAt(){
+        return this.finishesAt;
+    }
+    public void setFinishesAt(LocalDateTime finishesAt){
+        this.finishesAt = finishesAt;
+    }
+}
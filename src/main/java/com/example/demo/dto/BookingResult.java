@@ -0,0 +1,47 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one appointment of a batch, reported at its position in the
+ * request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookingResult {
+
+    private final int index;
+    private final boolean accepted;
+    private final Long id;
+    private final String reason;
+
+    private BookingResult(int index, boolean accepted, Long id, String reason){
+        this.index = index;
+        this.accepted = accepted;
+        this.id = id;
+        this.reason = reason;
+    }
+
+    public static BookingResult accepted(int index, long id){
+        return new BookingResult(index, true, id, null);
+    }
+
+    public static BookingResult rejected(int index, String reason){
+        return new BookingResult(index, false, null, reason);
+    }
+
+    public int getIndex(){
+        return this.index;
+    }
+
+    public boolean isAccepted(){
+        return this.accepted;
+    }
+
+    public Long getId(){
+        return this.id;
+    }
+
+    public String getReason(){
+        return this.reason;
+    }
+}
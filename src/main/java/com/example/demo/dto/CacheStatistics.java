@@ -0,0 +1,43 @@
+package com.example.demo.dto;
+
+/**
+ * Hit and miss counts of one second-level cache region since startup.
+ */
+public class CacheStatistics {
+
+    private final String region;
+    private final long hits;
+    private final long misses;
+    private final long puts;
+
+    public CacheStatistics(String region, long hits, long misses, long puts){
+        this.region = region;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+    }
+
+    public String getRegion(){
+        return this.region;
+    }
+
+    public long getHits(){
+        return this.hits;
+    }
+
+    public long getMisses(){
+        return this.misses;
+    }
+
+    public long getPuts(){
+        return this.puts;
+    }
+
+    /**
+     * Share of lookups answered from the cache, 0 before the first lookup.
+     */
+    public double getHitRatio(){
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
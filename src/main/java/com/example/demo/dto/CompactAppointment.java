@@ -0,0 +1,60 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * An appointment as listed with ?view=compact: its times and the keys of its
+ * patient, doctor and room, all read from the appointment row itself.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompactAppointment {
+
+    private final long id;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    private final LocalDateTime startsAt;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
+    private final LocalDateTime finishesAt;
+
+    private final String roomName;
+    private final Long patientId;
+    private final Long doctorId;
+
+    public CompactAppointment(long id, LocalDateTime startsAt, LocalDateTime finishesAt, String roomName,
+            Long patientId, Long doctorId){
+        this.id = id;
+        this.startsAt = startsAt;
+        this.finishesAt = finishesAt;
+        this.roomName = roomName;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+    }
+
+    public long getId(){
+        return this.id;
+    }
+
+    public LocalDateTime getStartsAt(){
+        return this.startsAt;
+    }
+
+    public LocalDateTime getFinishesAt(){
+        return this.finishesAt;
+    }
+
+    public String getRoomName(){
+        return this.roomName;
+    }
+
+    public Long getPatientId(){
+        return this.patientId;
+    }
+
+    public Long getDoctorId(){
+        return this.doctorId;
+    }
+}
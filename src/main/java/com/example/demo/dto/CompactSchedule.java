@@ -0,0 +1,39 @@
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Compact appointments together with the patients and doctors they refer to,
+ * each written once and keyed by id, as listed with
+ * ?view=compact&amp;include=patients,doctors. Tables not asked for are left out.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CompactSchedule {
+
+    private final List<CompactAppointment> appointments;
+    private final Map<Long, Patient> patients;
+    private final Map<Long, Doctor> doctors;
+
+    public CompactSchedule(List<CompactAppointment> appointments, Map<Long, Patient> patients, Map<Long, Doctor> doctors){
+        this.appointments = appointments;
+        this.patients = patients;
+        this.doctors = doctors;
+    }
+
+    public List<CompactAppointment> getAppointments(){
+        return this.appointments;
+    }
+
+    public Map<Long, Patient> getPatients(){
+        return this.patients;
+    }
+
+    public Map<Long, Doctor> getDoctors(){
+        return this.doctors;
+    }
+}
@@ -1,18 +1,30 @@
 package com.example.demo.entities;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.*;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
+@NamedEntityGraph(name = "Appointment.withParties", attributeNodes = {
+        @NamedAttributeNode("patient"), @NamedAttributeNode("doctor"), @NamedAttributeNode("room")
+})
+@Table(indexes = {
+        @Index(name = "idx_appointment_room_schedule", columnList = "room_id, startsAt, finishesAt"),
+        @Index(name = "idx_appointment_starts_at", columnList = "startsAt, id"),
+        @Index(name = "idx_appointment_doctor_schedule", columnList = "doctor_id, startsAt"),
+        @Index(name = "idx_appointment_patient_schedule", columnList = "patient_id, startsAt")
+})
 public class Appointment {
 
     @Id
-    @GeneratedValue(strategy=GenerationType.AUTO)
+    @GeneratedValue(strategy=GenerationType.AUTO, generator=PooledIdGenerator.NAME)
     private long id;
 
 
@@ -34,6 +46,11 @@ public class Appointment {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm dd/MM/yyyy")
     private LocalDateTime finishesAt;
 
+    // Only filled when the slot ledger is enabled
+    @JsonIgnore
+    @OneToMany(mappedBy = "appointment", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<RoomSlot> slots = new ArrayList<>();
+
     public Appointment(){
         super();
     }
@@ -88,6 +105,10 @@ public class Appointment {
     public void setRoom(Room room){
         this.room = room;
     }
+
+    public List<RoomSlot> getSlots(){
+        return this.slots;
+    }
     
     public boolean overlaps( Appointment appointment){
         /// True when:
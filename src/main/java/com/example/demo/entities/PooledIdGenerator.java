@@ -0,0 +1,38 @@
+package com.example.demo.entities;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Ids for patients, doctors and appointments from the shared hibernate_sequence
+ * (a table of that name on MySQL), reserved in blocks of ids.allocation_size.
+ * A single trip to the sequence covers a whole block, so inserts need no round
+ * trip per row and are sent in JDBC batches.
+ *
+ * The pooled-lo optimizer reads the stored value as the first id of the next
+ * block, which is what it meant with one id per trip, so existing databases
+ * carry on from where they were.
+ */
+public class PooledIdGenerator extends SequenceStyleGenerator {
+
+    public static final String NAME = "pooled_ids";
+    public static final String ALLOCATION_SIZE = "ids.allocation_size";
+    static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE,
+                serviceRegistry.getService(ConfigurationService.class).getSettings(), DEFAULT_ALLOCATION_SIZE);
+        params.setProperty(SEQUENCE_PARAM, DEF_SEQUENCE_NAME);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
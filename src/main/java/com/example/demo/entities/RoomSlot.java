@@ -0,0 +1,88 @@
+package com.example.demo.entities;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import javax.persistence.*;
+
+/**
+ * A fixed-size time bucket of a room held by an appointment. The unique key
+ * on (room_id, slot_start) lets the database itself reject a booking that
+ * would take a bucket already held by another appointment.
+ */
+@Entity
+@Table(name = "room_slot", uniqueConstraints = @UniqueConstraint(name = RoomSlot.UNIQUE_KEY, columnNames = {"room_id", "slot_start"}))
+public class RoomSlot {
+
+    public static final String UNIQUE_KEY = "uk_room_slot";
+
+    @EmbeddedId
+    private Key id;
+
+    @MapsId("appointmentId")
+    @ManyToOne
+    @JoinColumn(name = "appointment_id", referencedColumnName = "id")
+    private Appointment appointment;
+
+    @Column(name = "room_id", nullable = false)
+    private String roomName;
+
+    public RoomSlot(){
+        super();
+    }
+
+    public RoomSlot(Appointment appointment, String roomName, LocalDateTime slotStart){
+        this.id = new Key(slotStart);
+        this.appointment = appointment;
+        this.roomName = roomName;
+    }
+
+    public Appointment getAppointment(){
+        return this.appointment;
+    }
+
+    public String getRoomName(){
+        return this.roomName;
+    }
+
+    public LocalDateTime getSlotStart(){
+        return this.id.slotStart;
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long appointmentId;
+
+        @Column(name = "slot_start")
+        private LocalDateTime slotStart;
+
+        public Key(){
+            super();
+        }
+
+        public Key(LocalDateTime slotStart){
+            this.slotStart = slotStart;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if (this == o){
+                return true;
+            }
+            if (!(o instanceof Key)){
+                return false;
+            }
+            Key other = (Key) o;
+            return appointmentId == other.appointmentId && Objects.equals(slotStart, other.slotStart);
+        }
+
+        @Override
+        public int hashCode(){
+            return Objects.hash(appointmentId, slotStart);
+        }
+    }
+}
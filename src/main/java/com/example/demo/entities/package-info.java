@@ -0,0 +1,4 @@
+@GenericGenerator(name = PooledIdGenerator.NAME, strategy = "com.example.demo.entities.PooledIdGenerator")
+package com.example.demo.entities;
+
+import org.hibernate.annotations.GenericGenerator;
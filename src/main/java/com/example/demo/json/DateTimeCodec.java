@@ -0,0 +1,182 @@
+package com.example.demo.json;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+/**
+ * Writes and reads the "HH:mm dd/MM/yyyy" date-times of the API digit by
+ * digit, straight into the generator and out of the parser's character
+ * buffer, instead of going through a pattern-based DateTimeFormatter and the
+ * parse context it allocates for every value.
+ *
+ * Only the plain case takes the fast path: years 0001 to 9999 and, when
+ * reading, in-range fields. Everything else, such as an empty string, a
+ * "31/04" that the formatter resolves to the 30th or a property with another
+ * @JsonFormat, goes to the formatter-based jsr310 serializer and deserializer,
+ * so the results and error messages stay the same.
+ */
+public final class DateTimeCodec {
+
+    public static final String PATTERN = "HH:mm dd/MM/yyyy";
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN);
+    public static final int LENGTH = PATTERN.length();
+
+    private DateTimeCodec(){
+    }
+
+    /**
+     * Writes the value at offset as LENGTH characters, returning false,
+     * without writing, for years the pattern does not print as four digits.
+     */
+    public static boolean format(LocalDateTime value, char[] buffer, int offset){
+        int year = value.getYear();
+        if (year < 1 || year > 9999){
+            return false;
+        }
+        writeTwoDigits(buffer, offset, value.getHour());
+        buffer[offset + 2] = ':';
+        writeTwoDigits(buffer, offset + 3, value.getMinute());
+        buffer[offset + 5] = ' ';
+        writeTwoDigits(buffer, offset + 6, value.getDayOfMonth());
+        buffer[offset + 8] = '/';
+        writeTwoDigits(buffer, offset + 9, value.getMonthValue());
+        buffer[offset + 11] = '/';
+        writeTwoDigits(buffer, offset + 12, year / 100);
+        writeTwoDigits(buffer, offset + 14, year % 100);
+        return true;
+    }
+
+    /**
+     * Reads LENGTH characters at offset, or returns null when they are not a
+     * valid date-time in the pattern, leaving those to the formatter.
+     */
+    public static LocalDateTime parse(char[] text, int offset, int length){
+        if (length != LENGTH || text[offset + 2] != ':' || text[offset + 5] != ' '
+                || text[offset + 8] != '/' || text[offset + 11] != '/'){
+            return null;
+        }
+        int hour = readTwoDigits(text, offset);
+        int minute = readTwoDigits(text, offset + 3);
+        int day = readTwoDigits(text, offset + 6);
+        int month = readTwoDigits(text, offset + 9);
+        int century = readTwoDigits(text, offset + 12);
+        int yearOfCentury = readTwoDigits(text, offset + 14);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || month < 1 || month > 12
+                || century < 0 || yearOfCentury < 0 || day < 1){
+            return null;
+        }
+        int year = century * 100 + yearOfCentury;
+        if (year < 1 || day > Month.of(month).length(Year.isLeap(year))){
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute);
+    }
+
+    private static void writeTwoDigits(char[] buffer, int offset, int value){
+        buffer[offset] = (char) ('0' + value / 10);
+        buffer[offset + 1] = (char) ('0' + value % 10);
+    }
+
+    /** The two-digit number at offset, or -1 if either is not an ASCII digit. */
+    private static int readTwoDigits(char[] text, int offset){
+        int tens = text[offset] - '0';
+        int units = text[offset + 1] - '0';
+        if (tens < 0 || tens > 9 || units < 0 || units > 9){
+            return -1;
+        }
+        return tens * 10 + units;
+    }
+
+    /** Whether a property's @JsonFormat, if any, asks for nothing but this pattern. */
+    private static boolean isPlain(JsonFormat.Value format){
+        if (format == null){
+            return true;
+        }
+        boolean samePattern = !format.hasPattern() || PATTERN.equals(format.getPattern());
+        boolean asString = format.getShape() == JsonFormat.Shape.ANY || format.getShape() == JsonFormat.Shape.STRING;
+        return samePattern && asString && !format.hasLenient();
+    }
+
+    public static class Serializer extends StdSerializer<LocalDateTime> implements ContextualSerializer {
+
+        private static final long serialVersionUID = 1L;
+
+        // Generators are confined to a thread, and writeString copies the characters out
+        private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[LENGTH]);
+
+        private final LocalDateTimeSerializer fallback = new LocalDateTimeSerializer(FORMATTER);
+
+        public Serializer(){
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            char[] buffer = BUFFER.get();
+            if (format(value, buffer, 0)){
+                generator.writeString(buffer, 0, LENGTH);
+            } else {
+                fallback.serialize(value, generator, provider);
+            }
+        }
+
+        @Override
+        public void serializeWithType(LocalDateTime value, JsonGenerator generator, SerializerProvider provider,
+                TypeSerializer typeSerializer) throws IOException {
+            fallback.serializeWithType(value, generator, provider, typeSerializer);
+        }
+
+        @Override
+        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) throws JsonMappingException {
+            return isPlain(findFormatOverrides(provider, property, handledType())) ? this : fallback.createContextual(provider, property);
+        }
+    }
+
+    public static class Deserializer extends StdDeserializer<LocalDateTime> implements ContextualDeserializer {
+
+        private static final long serialVersionUID = 1L;
+
+        private final LocalDateTimeDeserializer fallback = new LocalDateTimeDeserializer(FORMATTER);
+
+        public Deserializer(){
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_STRING)){
+                LocalDateTime value = parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                if (value != null){
+                    return value;
+                }
+            }
+            return fallback.deserialize(parser, context);
+        }
+
+        @Override
+        public JsonDeserializer<?> createContextual(DeserializationContext context, BeanProperty property) throws JsonMappingException {
+            return isPlain(findFormatOverrides(context, property, handledType())) ? this : fallback.createContextual(context, property);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.demo.reactive;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+import com.example.demo.entities.Room;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The read endpoints of the reactive server, at the same paths as their
+ * servlet counterparts. Functional routes rather than annotated controllers,
+ * which Spring MVC would pick up as well.
+ *
+ * Lists go out as NDJSON when the client accepts it, one appointment per line
+ * written as it is read, with the socket's demand throttling the query.
+ * Otherwise they are a JSON array written the same way, an element at a time
+ * between the brackets, so neither format holds the whole list in memory.
+ */
+public class ReactiveReadRoutes {
+
+    private static final byte[] OPEN = "[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SEPARATOR = ",".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CLOSE = "]".getBytes(StandardCharsets.UTF_8);
+
+    private final ReactiveReads reads;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveReadRoutes(ReactiveReads reads, ObjectMapper objectMapper){
+        this.reads = reads;
+        this.objectMapper = objectMapper;
+    }
+
+    public RouterFunction<ServerResponse> routes(){
+        return route(GET("/api/appointments"), request -> list(request, reads.appointments(), Appointment.class))
+                .andRoute(GET("/api/appointments/{id}"), request -> withId(request, id -> one(reads.appointment(id))))
+                .andRoute(GET("/api/patients"), request -> list(request, reads.patients(), Patient.class))
+                .andRoute(GET("/api/patients/{id}"), request -> withId(request, id -> one(reads.patient(id))))
+                .andRoute(GET("/api/doctors"), request -> list(request, reads.doctors(), Doctor.class))
+                .andRoute(GET("/api/doctors/{id}"), request -> withId(request, id -> one(reads.doctor(id))))
+                .andRoute(GET("/api/rooms"), request -> list(request, reads.rooms(), Room.class))
+                .andRoute(GET("/api/rooms/{roomName}"), request -> one(reads.room(request.pathVariable("roomName"))));
+    }
+
+    private <T> Mono<ServerResponse> list(ServerRequest request, Flux<T> items, Class<T> type){
+        List<MediaType> accepted = request.headers().accept();
+        if (accepted.stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype)){
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(items, type);
+        }
+        // The JSON encoder would collect a non-streaming body into a list first
+        ObjectWriter writer = objectMapper.writerFor(type);
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .body((message, context) -> message.writeWith(jsonArray(items, writer, message.bufferFactory())));
+    }
+
+    private static <T> Flux<DataBuffer> jsonArray(Flux<T> items, ObjectWriter writer, DataBufferFactory buffers){
+        Flux<DataBuffer> elements = items.index().map(item -> {
+            byte[] json;
+            try {
+                json = writer.writeValueAsBytes(item.getT2());
+            } catch (JsonProcessingException e) {
+                throw Exceptions.propagate(e);
+            }
+            DataBuffer buffer = buffers.allocateBuffer(json.length + 1);
+            if (item.getT1() > 0){
+                buffer.write(SEPARATOR);
+            }
+            return buffer.write(json);
+        });
+        return Flux.concat(Mono.fromSupplier(() -> buffers.wrap(OPEN)), elements, Mono.fromSupplier(() -> buffers.wrap(CLOSE)));
+    }
+
+    private static <T> Mono<ServerResponse> one(Mono<T> item){
+        return item.flatMap(found -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(found))
+                .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    private static Mono<ServerResponse> withId(ServerRequest request,
+            LongFunction<Mono<ServerResponse>> handler){
+        long id;
+        try {
+            id = Long.parseLong(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().build();
+        }
+        return handler.apply(id);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.demo.reactive;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+import com.example.demo.entities.Person;
+import com.example.demo.entities.Room;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads appointments, patients, doctors and rooms over R2DBC into the JPA
+ * entity classes, used here as plain objects. Rows are pulled from the driver
+ * as the subscriber requests them, so a slow reader holds a connection but no
+ * thread and no buffered result set.
+ *
+ * The pool is kept out of the application context on purpose: a
+ * ConnectionFactory bean makes Spring Boot back off from configuring the
+ * DataSource that JPA runs on.
+ */
+public class ReactiveReads implements DisposableBean {
+
+    private static final String APPOINTMENTS = "select a.id, a.starts_at, a.finishes_at, a.room_id, "
+            + "p.id as p_id, p.first_name as p_first_name, p.last_name as p_last_name, p.age as p_age, p.email as p_email, "
+            + "d.id as d_id, d.first_name as d_first_name, d.last_name as d_last_name, d.age as d_age, d.email as d_email "
+            + "from appointment a left join patient p on p.id = a.patient_id left join doctors d on d.id = a.doctor_id";
+    private static final String PATIENTS = "select id as p_id, first_name as p_first_name, last_name as p_last_name, "
+            + "age as p_age, email as p_email from patient";
+    private static final String DOCTORS = "select id as d_id, first_name as d_first_name, last_name as d_last_name, "
+            + "age as d_age, email as d_email from doctors";
+
+    private final ConnectionPool pool;
+    private final DatabaseClient databaseClient;
+
+    public ReactiveReads(String url, String username, String password, int maxSize){
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (username != null){
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (password != null){
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .maxSize(maxSize)
+                .maxIdleTime(Duration.ofMinutes(30))
+                .build());
+        this.databaseClient = DatabaseClient.create(pool);
+    }
+
+    public Flux<Appointment> appointments(){
+        return databaseClient.sql(APPOINTMENTS + " order by a.starts_at, a.id")
+                .map((row, metadata) -> appointment(row))
+                .all();
+    }
+
+    public Mono<Appointment> appointment(long id){
+        return databaseClient.sql(APPOINTMENTS + " where a.id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> appointment(row))
+                .one();
+    }
+
+    public Flux<Patient> patients(){
+        return databaseClient.sql(PATIENTS + " order by id")
+                .map((row, metadata) -> patient(row))
+                .all();
+    }
+
+    public Mono<Patient> patient(long id){
+        return databaseClient.sql(PATIENTS + " where id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> patient(row))
+                .one();
+    }
+
+    public Flux<Doctor> doctors(){
+        return databaseClient.sql(DOCTORS + " order by id")
+                .map((row, metadata) -> doctor(row))
+                .all();
+    }
+
+    public Mono<Doctor> doctor(long id){
+        return databaseClient.sql(DOCTORS + " where id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> doctor(row))
+                .one();
+    }
+
+    public Flux<Room> rooms(){
+        return databaseClient.sql("select room_name from room order by room_name")
+                .map((row, metadata) -> new Room(row.get("room_name", String.class)))
+                .all();
+    }
+
+    public Mono<Room> room(String roomName){
+        return databaseClient.sql("select room_name from room where room_name = :roomName")
+                .bind("roomName", roomName)
+                .map((row, metadata) -> new Room(row.get("room_name", String.class)))
+                .one();
+    }
+
+    private static Appointment appointment(Row row){
+        String roomName = row.get("room_id", String.class);
+        Appointment appointment = new Appointment(
+                row.get("p_id") == null ? null : patient(row),
+                row.get("d_id") == null ? null : doctor(row),
+                roomName == null ? null : new Room(roomName),
+                row.get("starts_at", LocalDateTime.class),
+                row.get("finishes_at", LocalDateTime.class));
+        appointment.setId(row.get("id", Long.class));
+        return appointment;
+    }
+
+    private static Patient patient(Row row){
+        Patient patient = person(new Patient(), row, "p_");
+        patient.setId(row.get("p_id", Long.class));
+        return patient;
+    }
+
+    private static Doctor doctor(Row row){
+        Doctor doctor = person(new Doctor(), row, "d_");
+        doctor.setId(row.get("d_id", Long.class));
+        return doctor;
+    }
+
+    private static <P extends Person> P person(P person, Row row, String prefix){
+        person.setFirstName(row.get(prefix + "first_name", String.class));
+        person.setLastName(row.get(prefix + "last_name", String.class));
+        Integer age = row.get(prefix + "age", Integer.class);
+        person.setAge(age == null ? 0 : age);
+        person.setEmail(row.get(prefix + "email", String.class));
+        return person;
+    }
+
+    @Override
+    public void destroy(){
+        pool.dispose();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.reactive;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * A Reactor Netty server for the reactive endpoints, next to the servlet
+ * container rather than in it: a Spring Boot application is either a servlet
+ * or a reactive web application, and this one stays a servlet one.
+ */
+public class ReactiveServer implements SmartLifecycle {
+
+    private final HttpHandler httpHandler;
+    private final int port;
+
+    private volatile DisposableServer server;
+
+    public ReactiveServer(HttpHandler httpHandler, int port){
+        this.httpHandler = httpHandler;
+        this.port = port;
+    }
+
+    @Override
+    public void start(){
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+    }
+
+    @Override
+    public void stop(){
+        DisposableServer running = server;
+        if (running != null){
+            running.disposeNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning(){
+        return server != null;
+    }
+
+    /**
+     * The bound port, which differs from the configured one when that is 0.
+     */
+    public int getPort(){
+        DisposableServer running = server;
+        return running == null ? -1 : running.port();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.Appointment;
+
+/**
+ * Inserts of appointments that refer to stored patients, doctors and rooms.
+ */
+public interface AppointmentReferences {
+
+    /**
+     * Persists an appointment whose patient, doctor and room hold only their
+     * keys. They are swapped for proxies, which neither load the rows nor
+     * cascade to them, so the booking is a single insert; a key that does not
+     * exist fails the foreign key instead.
+     */
+    Appointment persistByReference(Appointment appointment);
+}
@@ -0,0 +1,24 @@
+package com.example.demo.repositories;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+import com.example.demo.entities.Room;
+
+class AppointmentReferencesImpl implements AppointmentReferences {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Appointment persistByReference(Appointment appointment){
+        appointment.setPatient(entityManager.getReference(Patient.class, appointment.getPatient().getId()));
+        appointment.setDoctor(entityManager.getReference(Doctor.class, appointment.getDoctor().getId()));
+        appointment.setRoom(entityManager.getReference(Room.class, appointment.getRoom().getRoomName()));
+        entityManager.persist(appointment);
+        return appointment;
+    }
+}
@@ -1,14 +1,124 @@
 
 package com.example.demo.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
+import javax.persistence.Tuple;
+
+import com.example.demo.dto.AppointmentInterval;
+import com.example.demo.dto.AppointmentSummary;
+import com.example.demo.dto.CompactAppointment;
 import com.example.demo.entities.Appointment;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>,
+        AppointmentSummaries, AppointmentReferences, FieldsetQueries {
+
+    // Reads that return appointments load patient, doctor and room in the same select
+    String WITH_PARTIES = "Appointment.withParties";
+
+    String SUMMARY = "select new com.example.demo.dto.AppointmentSummary(a.id, a.startsAt, a.finishesAt, r.roomName, "
+            + "p.id, p.firstName, p.lastName, d.id, d.firstName, d.lastName) "
+            + "from Appointment a left join a.room r left join a.patient p left join a.doctor d ";
 
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+    // The ids of the parties are the foreign key columns, so no join is needed
+    String COMPACT = "select new com.example.demo.dto.CompactAppointment(a.id, a.startsAt, a.finishesAt, a.room.roomName, "
+            + "a.patient.id, a.doctor.id) from Appointment a ";
+
+    @EntityGraph(WITH_PARTIES)
     List<Appointment> findAll();
+
+    @EntityGraph(WITH_PARTIES)
+    Optional<Appointment> findById(Long id);
+
+    @EntityGraph(WITH_PARTIES)
+    List<Appointment> findAllById(Iterable<Long> ids);
+
     Appointment save(Appointment appointment);
     void delete(Appointment appointment);
+
+    @Query("select new com.example.demo.dto.AppointmentInterval(a.id, a.room.roomName, a.startsAt, a.finishesAt) "
+            + "from Appointment a where a.room is not null and a.startsAt is not null and a.finishesAt is not null")
+    List<AppointmentInterval> findAllIntervals();
+
+    // Served by the (room_id, startsAt, finishesAt) index declared on Appointment
+    @Query("select a.id from Appointment a where a.room.roomName = :roomName "
+            + "and a.startsAt < :finishesAt and a.finishesAt > :startsAt")
+    List<Long> findOverlappingIds(@Param("roomName") String roomName, @Param("startsAt") LocalDateTime startsAt,
+            @Param("finishesAt") LocalDateTime finishesAt, Pageable pageable);
+
+    @Query("select new com.example.demo.dto.AppointmentInterval(a.id, a.room.roomName, a.startsAt, a.finishesAt) "
+            + "from Appointment a where a.room.roomName = :roomName "
+            + "and a.startsAt < :finishesAt and a.finishesAt > :startsAt order by a.startsAt")
+    List<AppointmentInterval> findIntervals(@Param("roomName") String roomName, @Param("startsAt") LocalDateTime startsAt,
+            @Param("finishesAt") LocalDateTime finishesAt);
+
+    // Keyset pages ordered by (startsAt, id), served by the index of the same columns
+    @EntityGraph(WITH_PARTIES)
+    @Query("select a from Appointment a order by a.startsAt, a.id")
+    List<Appointment> findFirstPage(Pageable pageable);
+
+    @EntityGraph(WITH_PARTIES)
+    @Query("select a from Appointment a where a.startsAt > :startsAt or (a.startsAt = :startsAt and a.id > :id) "
+            + "order by a.startsAt, a.id")
+    List<Appointment> findPageAfter(@Param("startsAt") LocalDateTime startsAt, @Param("id") long id, Pageable pageable);
+
+    @Query(SUMMARY + "order by a.startsAt, a.id")
+    List<AppointmentSummary> findAllSummaries();
+
+    @Query(SUMMARY + "order by a.startsAt, a.id")
+    List<AppointmentSummary> findFirstSummaryPage(Pageable pageable);
+
+    @Query(SUMMARY + "where a.startsAt > :startsAt or (a.startsAt = :startsAt and a.id > :id) order by a.startsAt, a.id")
+    List<AppointmentSummary> findSummaryPageAfter(@Param("startsAt") LocalDateTime startsAt, @Param("id") long id, Pageable pageable);
+
+    @Query(COMPACT + "order by a.startsAt, a.id")
+    List<CompactAppointment> findAllCompact();
+
+    @Query(COMPACT + "order by a.startsAt, a.id")
+    List<CompactAppointment> findFirstCompactPage(Pageable pageable);
+
+    @Query(COMPACT + "where a.startsAt > :startsAt or (a.startsAt = :startsAt and a.id > :id) order by a.startsAt, a.id")
+    List<CompactAppointment> findCompactPageAfter(@Param("startsAt") LocalDateTime startsAt, @Param("id") long id, Pageable pageable);
+
+    // Sparse fieldsets, in the order of the keyset pages
+    default List<Tuple> findAllFields(Fieldset fields){
+        return findFields(fields, null, Collections.emptyMap(), "a.startsAt, a.id", Pageable.unpaged());
+    }
+
+    default Optional<Tuple> findFieldsById(Fieldset fields, long id){
+        return findFields(fields, "a.id = :id", Collections.singletonMap("id", id), "a.startsAt, a.id", Pageable.unpaged())
+                .stream().findFirst();
+    }
+
+    default List<Tuple> findFirstFieldsPage(Fieldset fields, Pageable pageable){
+        return findFields(fields, null, Collections.emptyMap(), "a.startsAt, a.id", pageable);
+    }
+
+    default List<Tuple> findFieldsPageAfter(Fieldset fields, LocalDateTime startsAt, long id, Pageable pageable){
+        Map<String, Object> key = new HashMap<>();
+        key.put("startsAt", startsAt);
+        key.put("id", id);
+        return findFields(fields, "a.startsAt > :startsAt or (a.startsAt = :startsAt and a.id > :id)", key,
+                "a.startsAt, a.id", pageable);
+    }
+
+    default List<Appointment> findMatching(String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to){
+        return findMatching(roomName, doctorId, patientId, from, to, null, null, Pageable.unpaged());
+    }
+
+    default boolean existsOverlapping(String roomName, LocalDateTime startsAt, LocalDateTime finishesAt){
+        return !findOverlappingIds(roomName, startsAt, finishesAt, PageRequest.of(0, 1)).isEmpty();
+    }
 }
@@ -0,0 +1,47 @@
+package com.example.demo.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.persistence.Tuple;
+
+import org.springframework.data.domain.Pageable;
+
+import com.example.demo.dto.AppointmentSummary;
+import com.example.demo.dto.CompactAppointment;
+import com.example.demo.entities.Appointment;
+
+/**
+ * Summary, compact and fieldset queries whose where clause depends on the filters given.
+ */
+public interface AppointmentSummaries {
+
+    /**
+     * Appointments starting from from (inclusive) to to (exclusive) that match
+     * every given filter, in (startsAt, id) order, with their parties. Null
+     * filters are left out of the query, so a filter by room, doctor or
+     * patient range-scans the index of that column and startsAt. Rows come
+     * after the key (afterStartsAt, afterId) if given, up to the page size if
+     * paged.
+     */
+    List<Appointment> findMatching(String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to,
+            LocalDateTime afterStartsAt, Long afterId, Pageable pageable);
+
+    /**
+     * The summaries of {@link #findMatching}: same filters, same order.
+     */
+    List<AppointmentSummary> findSummaries(String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to,
+            LocalDateTime afterStartsAt, Long afterId, Pageable pageable);
+
+    /**
+     * The compact rows of {@link #findMatching}: same filters, same order.
+     */
+    List<CompactAppointment> findCompact(String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to,
+            LocalDateTime afterStartsAt, Long afterId, Pageable pageable);
+
+    /**
+     * The given fields of {@link #findMatching}: same filters, same order.
+     */
+    List<Tuple> findMatchingFields(Fieldset fields, String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to,
+            LocalDateTime afterStartsAt, Long afterId, Pageable pageable);
+}
@@ -0,0 +1,102 @@
+package com.example.demo.repositories;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+
+import org.springframework.data.domain.Pageable;
+
+import com.example.demo.dto.AppointmentSummary;
+import com.example.demo.dto.CompactAppointment;
+import com.example.demo.entities.Appointment;
+
+class AppointmentSummariesImpl implements AppointmentSummaries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Appointment> findMatching(String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to,
+            LocalDateTime afterStartsAt, Long afterId, Pageable pageable){
+        TypedQuery<Appointment> query = query("select a from Appointment a ", Appointment.class, roomName, doctorId, patientId,
+                from, to, afterStartsAt, afterId, pageable);
+        query.setHint("javax.persistence.loadgraph", entityManager.getEntityGraph(AppointmentRepository.WITH_PARTIES));
+        return query.getResultList();
+    }
+
+    @Override
+    public List<AppointmentSummary> findSummaries(String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to,
+            LocalDateTime afterStartsAt, Long afterId, Pageable pageable){
+        return query(AppointmentRepository.SUMMARY, AppointmentSummary.class, roomName, doctorId, patientId,
+                from, to, afterStartsAt, afterId, pageable).getResultList();
+    }
+
+    @Override
+    public List<CompactAppointment> findCompact(String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to,
+            LocalDateTime afterStartsAt, Long afterId, Pageable pageable){
+        return query(AppointmentRepository.COMPACT, CompactAppointment.class, roomName, doctorId, patientId,
+                from, to, afterStartsAt, afterId, pageable).getResultList();
+    }
+
+    @Override
+    public List<Tuple> findMatchingFields(Fieldset fields, String roomName, Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to,
+            LocalDateTime afterStartsAt, Long afterId, Pageable pageable){
+        return query(fields.select(), Tuple.class, roomName, doctorId, patientId,
+                from, to, afterStartsAt, afterId, pageable).getResultList();
+    }
+
+    private <T> TypedQuery<T> query(String select, Class<T> type, String roomName, Long doctorId, Long patientId,
+            LocalDateTime from, LocalDateTime to, LocalDateTime afterStartsAt, Long afterId, Pageable pageable){
+        // The ids are compared on the foreign key columns, so the filter can use their indexes
+        List<String> conditions = new ArrayList<>();
+        if (roomName != null){
+            conditions.add("a.room.roomName = :roomName");
+        }
+        if (doctorId != null){
+            conditions.add("a.doctor.id = :doctorId");
+        }
+        if (patientId != null){
+            conditions.add("a.patient.id = :patientId");
+        }
+        if (from != null){
+            conditions.add("a.startsAt >= :from");
+        }
+        if (to != null){
+            conditions.add("a.startsAt < :to");
+        }
+        if (afterStartsAt != null){
+            conditions.add("(a.startsAt > :afterStartsAt or (a.startsAt = :afterStartsAt and a.id > :afterId))");
+        }
+        String where = conditions.isEmpty() ? "" : "where " + String.join(" and ", conditions) + " ";
+        TypedQuery<T> query = entityManager.createQuery(select + where + "order by a.startsAt, a.id", type);
+        if (roomName != null){
+            query.setParameter("roomName", roomName);
+        }
+        if (doctorId != null){
+            query.setParameter("doctorId", doctorId);
+        }
+        if (patientId != null){
+            query.setParameter("patientId", patientId);
+        }
+        if (from != null){
+            query.setParameter("from", from);
+        }
+        if (to != null){
+            query.setParameter("to", to);
+        }
+        if (afterStartsAt != null){
+            query.setParameter("afterStartsAt", afterStartsAt);
+            query.setParameter("afterId", afterId);
+        }
+        if (pageable.isPaged()){
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
+}
@@ -1,13 +1,45 @@
 package com.example.demo.repositories;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.Tuple;
 
 import com.example.demo.entities.Doctor;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+public interface DoctorRepository extends JpaRepository<Doctor, Long>, FieldsetQueries {
     List<Doctor> findAll();
     Doctor save(Doctor doc);
     void delete(Doctor doc);
+
+    // One statement, returning the number of rows deleted
+    @Transactional
+    @Modifying
+    @Query("delete from Doctor e where e.id = :id")
+    int deleteWithId(@Param("id") long id);
+
+    // Keyset page: the rows after the given id, seeking on the primary key
+    List<Doctor> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    // Sparse fieldsets, in the order of the keyset pages
+    default List<Tuple> findAllFields(Fieldset fields){
+        return findFields(fields, null, Collections.emptyMap(), "e.id", Pageable.unpaged());
+    }
+
+    default Optional<Tuple> findFieldsById(Fieldset fields, long id){
+        return findFields(fields, "e.id = :id", Collections.singletonMap("id", id), "e.id", Pageable.unpaged())
+                .stream().findFirst();
+    }
+
+    default List<Tuple> findFieldsAfter(Fieldset fields, long id, Pageable pageable){
+        return findFields(fields, "e.id > :id", Collections.singletonMap("id", id), "e.id", pageable);
+    }
 }
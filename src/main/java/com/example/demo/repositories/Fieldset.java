@@ -0,0 +1,235 @@
+package com.example.demo.repositories;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.Tuple;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+import com.example.demo.entities.Room;
+
+/**
+ * The properties of an entity asked for with ?fields=, and the tuple query
+ * that reads only their columns. Properties of an appointment's patient,
+ * doctor and room are named with a dot (patient.lastName), or all of them at
+ * once by the party's name; their table is only joined when a column other
+ * than the id is asked for.
+ *
+ * The key of the entity is always selected, so a page can be continued, but
+ * only the requested properties are written. The select reads patients and
+ * doctors as e, rooms as r and appointments as a, as the repository queries do.
+ */
+public final class Fieldset {
+
+    private static final Map<Class<?>, Catalogue> CATALOGUES = new HashMap<>();
+
+    static {
+        CATALOGUES.put(Patient.class, person("Patient"));
+        CATALOGUES.put(Doctor.class, person("Doctor"));
+        CATALOGUES.put(Room.class, new Catalogue("Room r", "roomName")
+                .field("roomName", "r.roomName"));
+        // The ids of the parties are the foreign key columns; the first field of each is its id
+        CATALOGUES.put(Appointment.class, new Catalogue("Appointment a", "startsAt", "id")
+                .field("id", "a.id")
+                .party("patient", "a.patient.id", "left join a.patient p", "p")
+                .party("doctor", "a.doctor.id", "left join a.doctor d", "d")
+                .field("room.roomName", "a.room.roomName")
+                .field("startsAt", "a.startsAt")
+                .field("finishesAt", "a.finishesAt"));
+    }
+
+    private final Catalogue catalogue;
+    private final Set<String> requested;
+    private final List<String> selected;
+    private final Set<String> joins;
+
+    private Fieldset(Catalogue catalogue, Set<String> requested, List<String> selected, Set<String> joins){
+        this.catalogue = catalogue;
+        this.requested = requested;
+        this.selected = selected;
+        this.joins = joins;
+    }
+
+    /**
+     * The given properties of the entity.
+     *
+     * @throws IllegalArgumentException if none is given or one is not a
+     * property of the entity
+     */
+    public static Fieldset of(Class<?> entity, Collection<String> fields){
+        Catalogue catalogue = CATALOGUES.get(entity);
+        if (catalogue == null){
+            throw new IllegalArgumentException("No fields for " + entity.getSimpleName());
+        }
+        if (fields == null || fields.isEmpty()){
+            throw new IllegalArgumentException("No fields given");
+        }
+        Set<String> requested = new HashSet<>();
+        for (String field : fields){
+            String name = field.trim();
+            boolean known = false;
+            for (String path : catalogue.expressions.keySet()){
+                if (path.equals(name) || path.startsWith(name + ".")){
+                    requested.add(path);
+                    known = true;
+                }
+            }
+            if (!known){
+                throw new IllegalArgumentException("Unknown field " + name);
+            }
+        }
+        // Requested columns in declaration order, then the party ids and keys they need
+        List<String> selected = new ArrayList<>();
+        for (String path : catalogue.expressions.keySet()){
+            if (requested.contains(path)){
+                selected.add(path);
+            }
+        }
+        for (String path : new ArrayList<>(selected)){
+            String party = partyOf(path);
+            if (party != null){
+                addAbsent(selected, catalogue.firstOf(party));
+            }
+        }
+        for (String key : catalogue.keys){
+            addAbsent(selected, key);
+        }
+        Set<String> joins = new LinkedHashSet<>();
+        for (String path : selected){
+            String join = catalogue.joins.get(path);
+            if (join != null){
+                joins.add(join);
+            }
+        }
+        return new Fieldset(catalogue, requested, selected, joins);
+    }
+
+    /**
+     * The select and from clauses of the tuple query, with a trailing space.
+     */
+    public String select(){
+        StringBuilder jpql = new StringBuilder("select ");
+        for (int i = 0; i < selected.size(); i++){
+            if (i > 0){
+                jpql.append(", ");
+            }
+            jpql.append(catalogue.expressions.get(selected.get(i)));
+        }
+        jpql.append(" from ").append(catalogue.from).append(' ');
+        for (String join : joins){
+            jpql.append(join).append(' ');
+        }
+        return jpql.toString();
+    }
+
+    /**
+     * The value of a selected property, requested or key, in a row of the
+     * query.
+     */
+    public Object get(Tuple row, String path){
+        int index = selected.indexOf(path);
+        if (index < 0){
+            throw new IllegalArgumentException(path + " is not selected");
+        }
+        return row.get(index);
+    }
+
+    /**
+     * The requested properties of a row, in declaration order, those of a
+     * party nested under its name. A missing party is written as null.
+     */
+    public Map<String, Object> toMap(Tuple row){
+        Map<String, Object> values = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> parties = new HashMap<>();
+        for (int i = 0; i < selected.size(); i++){
+            String path = selected.get(i);
+            if (!requested.contains(path)){
+                continue;
+            }
+            String party = partyOf(path);
+            if (party == null){
+                values.put(path, row.get(i));
+            } else if (get(row, catalogue.firstOf(party)) == null){
+                values.put(party, null);
+            } else {
+                Map<String, Object> nested = parties.get(party);
+                if (nested == null){
+                    nested = new LinkedHashMap<>();
+                    parties.put(party, nested);
+                    values.put(party, nested);
+                }
+                nested.put(path.substring(party.length() + 1), row.get(i));
+            }
+        }
+        return values;
+    }
+
+    private static String partyOf(String path){
+        int dot = path.indexOf('.');
+        return dot < 0 ? null : path.substring(0, dot);
+    }
+
+    private static void addAbsent(List<String> paths, String path){
+        if (!paths.contains(path)){
+            paths.add(path);
+        }
+    }
+
+    private static Catalogue person(String entity){
+        return new Catalogue(entity + " e", "id")
+                .field("id", "e.id")
+                .field("firstName", "e.firstName")
+                .field("lastName", "e.lastName")
+                .field("age", "e.age")
+                .field("email", "e.email");
+    }
+
+    /**
+     * The selectable properties of an entity, with the expression and join
+     * that read each of them.
+     */
+    private static final class Catalogue {
+
+        private final String from;
+        private final String[] keys;
+        private final Map<String, String> expressions = new LinkedHashMap<>();
+        private final Map<String, String> joins = new HashMap<>();
+
+        private Catalogue(String from, String... keys){
+            this.from = from;
+            this.keys = keys;
+        }
+
+        private Catalogue field(String path, String expression){
+            expressions.put(path, expression);
+            return this;
+        }
+
+        private Catalogue party(String party, String id, String join, String alias){
+            field(party + ".id", id);
+            for (String property : new String[] {"firstName", "lastName", "age", "email"}){
+                field(party + "." + property, alias + "." + property);
+                joins.put(party + "." + property, join);
+            }
+            return this;
+        }
+
+        private String firstOf(String party){
+            for (String path : expressions.keySet()){
+                if (path.startsWith(party + ".")){
+                    return path;
+                }
+            }
+            throw new IllegalArgumentException("No party " + party);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.repositories;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.Tuple;
+
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Tuple queries reading only the columns of a {@link Fieldset}.
+ */
+public interface FieldsetQueries {
+
+    /**
+     * The rows matching where (none if null) in the given order, with the
+     * named parameters bound, up to the page size if paged. Both clauses use
+     * the alias the fieldset reads its entity with.
+     */
+    List<Tuple> findFields(Fieldset fields, String where, Map<String, ?> parameters, String orderBy, Pageable pageable);
+}
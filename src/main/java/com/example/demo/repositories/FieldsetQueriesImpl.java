@@ -0,0 +1,29 @@
+package com.example.demo.repositories;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+
+import org.springframework.data.domain.Pageable;
+
+class FieldsetQueriesImpl implements FieldsetQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findFields(Fieldset fields, String where, Map<String, ?> parameters, String orderBy, Pageable pageable){
+        String jpql = fields.select() + (where == null ? "" : "where " + where + " ") + "order by " + orderBy;
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class);
+        parameters.forEach(query::setParameter);
+        if (pageable.isPaged()){
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList();
+    }
+}
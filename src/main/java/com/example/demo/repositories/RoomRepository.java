@@ -1,17 +1,55 @@
 
 package com.example.demo.repositories;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
+import javax.persistence.QueryHint;
+import javax.persistence.Tuple;
+
 import com.example.demo.entities.Room;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface RoomRepository extends JpaRepository<Room, Long> {
+public interface RoomRepository extends JpaRepository<Room, Long>, FieldsetQueries {
     List<Room> findAll();
+    // Every booking looks its room up, so the result goes in the query cache
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Room> findByRoomName(String roomName);
+    List<Room> findByRoomNameIn(Collection<String> roomNames);
     Room save(Room room);
     void delete(Room room);
+    @Transactional
     void deleteByRoomName(String roomName);
+
+    // One statement, returning the number of rows deleted
+    @Transactional
+    @Modifying
+    @Query("delete from Room r where r.roomName = :roomName")
+    int deleteWithRoomName(@Param("roomName") String roomName);
+
+    // Keyset page: the rooms after the given name, seeking on the primary key
+    List<Room> findByRoomNameGreaterThanOrderByRoomNameAsc(String roomName, Pageable pageable);
+
+    // Sparse fieldsets, in the order of the keyset pages
+    default List<Tuple> findAllFields(Fieldset fields){
+        return findFields(fields, null, Collections.emptyMap(), "r.roomName", Pageable.unpaged());
+    }
+
+    default Optional<Tuple> findFieldsByRoomName(Fieldset fields, String roomName){
+        return findFields(fields, "r.roomName = :roomName", Collections.singletonMap("roomName", roomName), "r.roomName",
+                Pageable.unpaged()).stream().findFirst();
+    }
+
+    default List<Tuple> findFieldsAfter(Fieldset fields, String roomName, Pageable pageable){
+        return findFields(fields, "r.roomName > :roomName", Collections.singletonMap("roomName", roomName), "r.roomName", pageable);
+    }
 }
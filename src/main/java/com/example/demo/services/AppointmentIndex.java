@@ -0,0 +1,359 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.AppointmentInterval;
+import com.example.demo.dto.FreeSlot;
+import com.example.demo.entities.Appointment;
+import com.example.demo.repositories.AppointmentRepository;
+
+/**
+ * In-memory index of booked intervals, one sorted schedule per room, so a
+ * lookup only looks at the handful of appointments of the target room that
+ * can actually reach the requested interval instead of the whole table. It
+ * backs the free slot search and keeps {@link RoomAvailability}'s bitmaps
+ * right after a delete.
+ *
+ * Rooms are interned to int ids and schedules hold epoch minutes in parallel
+ * primitive arrays, so a lookup compares longs without touching entities,
+ * strings or {@link LocalDateTime} objects.
+ *
+ * The index is filled from the database on startup and must be told about
+ * every save and delete afterwards.
+ */
+@Component
+public class AppointmentIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentIndex.class);
+
+    private static final Comparator<FreeSlot> BY_SLOT_START =
+            Comparator.comparing(FreeSlot::getStartsAt).thenComparing(FreeSlot::getRoomName);
+
+    private final AppointmentRepository appointmentRepository;
+
+    // Ids are never reused, so a room keeps its id across clear() and rebuild()
+    private final Map<String, Integer> roomIds = new ConcurrentHashMap<>();
+    private final List<RoomSchedule> schedules = new CopyOnWriteArrayList<>();
+    private final Map<Long, AppointmentInterval> byId = new ConcurrentHashMap<>();
+
+    private volatile long rebuildMillis;
+
+    public AppointmentIndex(AppointmentRepository appointmentRepository){
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    @PostConstruct
+    public void rebuild(){
+        long start = System.nanoTime();
+        clear();
+        List<AppointmentInterval> intervals = appointmentRepository.findAllIntervals();
+        if (intervals != null){
+            // Appended per room and sorted once, rather than shifting the arrays on every insert
+            Map<RoomSchedule, List<AppointmentInterval>> byRoom = new IdentityHashMap<>();
+            for (AppointmentInterval interval : intervals){
+                byId.put(interval.getId(), interval);
+                byRoom.computeIfAbsent(scheduleOf(interval), schedule -> new ArrayList<>()).add(interval);
+            }
+            byRoom.forEach(RoomSchedule::load);
+        }
+        rebuildMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Appointment index rebuilt with {} appointments in {} ms", size(), rebuildMillis);
+    }
+
+    public void add(Appointment appointment){
+        if (appointment.getRoom() != null){
+            add(AppointmentInterval.of(appointment));
+        }
+    }
+
+    public void add(AppointmentInterval interval){
+        AppointmentInterval previous = byId.put(interval.getId(), interval);
+        if (previous != null){
+            scheduleOf(previous).remove(previous.getId(), EpochMinutes.floor(previous.getStartsAt()));
+        }
+        scheduleOf(interval).add(interval.getId(),
+                EpochMinutes.floor(interval.getStartsAt()), EpochMinutes.ceil(interval.getFinishesAt()));
+    }
+
+    public AppointmentInterval remove(long id){
+        AppointmentInterval interval = byId.remove(id);
+        if (interval != null){
+            scheduleOf(interval).remove(id, EpochMinutes.floor(interval.getStartsAt()));
+        }
+        return interval;
+    }
+
+    public Collection<AppointmentInterval> intervals(){
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
+    public List<AppointmentInterval> intervals(String roomName, LocalDateTime startsAt, LocalDateTime finishesAt){
+        int roomId = roomId(roomName);
+        if (roomId < 0){
+            return Collections.emptyList();
+        }
+        long[] ids = schedules.get(roomId).overlapping(EpochMinutes.floor(startsAt), EpochMinutes.ceil(finishesAt));
+        List<AppointmentInterval> result = new ArrayList<>(ids.length);
+        for (long id : ids){
+            AppointmentInterval interval = byId.get(id);
+            if (interval != null){
+                result.add(interval);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The earliest gaps of at least the given length between from and to,
+     * across the given rooms, ordered by start. Each room's gaps are read off
+     * its start-ordered schedule, and the walk stops as soon as it passes the
+     * latest of the best gaps found so far, so the cost depends on the
+     * bookings near the start of the window only.
+     */
+    public List<FreeSlot> freeSlots(Collection<String> roomNames, LocalDateTime from, LocalDateTime to, Duration duration, int limit){
+        long fromMinute = EpochMinutes.ceil(from);
+        long toMinute = EpochMinutes.floor(to);
+        long minutes = duration.toMinutes();
+        PriorityQueue<FreeSlot> best = new PriorityQueue<>(Math.min(limit, 1024) + 1, BY_SLOT_START.reversed());
+        for (String roomName : roomNames){
+            long bound = best.size() < limit ? toMinute : EpochMinutes.floor(best.peek().getStartsAt());
+            int roomId = roomId(roomName);
+            long[] gaps = roomId < 0
+                    ? RoomSchedule.tail(fromMinute, toMinute, minutes)
+                    : schedules.get(roomId).gaps(fromMinute, toMinute, bound, minutes, limit);
+            for (int g = 0; g < gaps.length; g += 2){
+                best.add(new FreeSlot(roomName, EpochMinutes.toDateTime(gaps[g]), EpochMinutes.toDateTime(gaps[g + 1])));
+                if (best.size() > limit){
+                    best.poll();
+                }
+            }
+        }
+        List<FreeSlot> slots = new ArrayList<>(best);
+        slots.sort(BY_SLOT_START);
+        return slots;
+    }
+
+    public void clear(){
+        byId.clear();
+        schedules.forEach(RoomSchedule::clear);
+    }
+
+    public int size(){
+        return byId.size();
+    }
+
+    public long getRebuildMillis(){
+        return rebuildMillis;
+    }
+
+    // The interned id of a room, or -1 when nothing was ever booked in it
+    private int roomId(String roomName){
+        Integer roomId = roomIds.get(roomName);
+        return roomId == null ? -1 : roomId;
+    }
+
+    private RoomSchedule scheduleOf(AppointmentInterval interval){
+        Integer roomId = roomIds.get(interval.getRoomName());
+        if (roomId == null){
+            synchronized (roomIds){
+                roomId = roomIds.get(interval.getRoomName());
+                if (roomId == null){
+                    // Publish the schedule before the id that points at it
+                    schedules.add(new RoomSchedule());
+                    roomId = schedules.size() - 1;
+                    roomIds.put(interval.getRoomName(), roomId);
+                }
+            }
+        }
+        return schedules.get(roomId);
+    }
+
+    /**
+     * Intervals of one room as epoch minutes, in three parallel arrays sorted
+     * by start then id. Since a candidate can only collide with intervals
+     * starting less than the longest booked duration before it, a lookup
+     * binary-searches that bound and scans a narrow window from there, which
+     * keeps it logarithmic for non-overlapping schedules.
+     */
+    private static class RoomSchedule {
+
+        private static final long[] NO_GAPS = new long[0];
+
+        private long[] starts = new long[16];
+        private long[] finishes = new long[16];
+        private long[] ids = new long[16];
+        private int size;
+        private long longest;
+
+        synchronized void add(long id, long start, long finish){
+            if (size == starts.length){
+                starts = Arrays.copyOf(starts, size * 2);
+                finishes = Arrays.copyOf(finishes, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            int at = firstStartingAtOrAfter(start);
+            while (at < size && starts[at] == start && ids[at] < id){
+                at++;
+            }
+            System.arraycopy(starts, at, starts, at + 1, size - at);
+            System.arraycopy(finishes, at, finishes, at + 1, size - at);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            starts[at] = start;
+            finishes[at] = finish;
+            ids[at] = id;
+            size++;
+            longest = Math.max(longest, finish - start);
+        }
+
+        /**
+         * Appends the intervals and sorts the schedule once.
+         */
+        synchronized void load(List<AppointmentInterval> intervals){
+            int capacity = starts.length;
+            while (capacity < size + intervals.size()){
+                capacity *= 2;
+            }
+            starts = Arrays.copyOf(starts, capacity);
+            finishes = Arrays.copyOf(finishes, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            for (AppointmentInterval interval : intervals){
+                starts[size] = EpochMinutes.floor(interval.getStartsAt());
+                finishes[size] = EpochMinutes.ceil(interval.getFinishesAt());
+                ids[size] = interval.getId();
+                longest = Math.max(longest, finishes[size] - starts[size]);
+                size++;
+            }
+            sort();
+        }
+
+        private void sort(){
+            Integer[] order = new Integer[size];
+            boolean sorted = true;
+            for (int i = 0; i < size; i++){
+                order[i] = i;
+                sorted &= i == 0 || compare(i - 1, i) <= 0;
+            }
+            if (sorted){
+                return;
+            }
+            Arrays.sort(order, this::compare);
+            long[] sortedStarts = new long[starts.length];
+            long[] sortedFinishes = new long[finishes.length];
+            long[] sortedIds = new long[ids.length];
+            for (int i = 0; i < size; i++){
+                sortedStarts[i] = starts[order[i]];
+                sortedFinishes[i] = finishes[order[i]];
+                sortedIds[i] = ids[order[i]];
+            }
+            starts = sortedStarts;
+            finishes = sortedFinishes;
+            ids = sortedIds;
+        }
+
+        private int compare(int a, int b){
+            int byStart = Long.compare(starts[a], starts[b]);
+            return byStart != 0 ? byStart : Long.compare(ids[a], ids[b]);
+        }
+
+        synchronized void remove(long id, long start){
+            for (int i = firstStartingAtOrAfter(start); i < size && starts[i] == start; i++){
+                if (ids[i] == id){
+                    System.arraycopy(starts, i + 1, starts, i, size - i - 1);
+                    System.arraycopy(finishes, i + 1, finishes, i, size - i - 1);
+                    System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        synchronized void clear(){
+            size = 0;
+            longest = 0;
+        }
+
+        synchronized long[] overlapping(long start, long finish){
+            long[] found = new long[4];
+            int count = 0;
+            for (int i = firstStartingAtOrAfter(start - longest); i < size && starts[i] < finish; i++){
+                if (finishes[i] > start){
+                    if (count == found.length){
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = ids[i];
+                }
+            }
+            return Arrays.copyOf(found, count);
+        }
+
+        /**
+         * Up to limit gaps as (start, finish) pairs, stopping early once the
+         * walk is past bound.
+         */
+        synchronized long[] gaps(long from, long to, long bound, long minutes, int limit){
+            long[] gaps = new long[2 * Math.min(limit, 8)];
+            int count = 0;
+            long cursor = from;
+            for (int i = firstStartingAtOrAfter(from - longest); i < size && starts[i] < to; i++){
+                if (count == 2 * limit || cursor > bound){
+                    return Arrays.copyOf(gaps, count);
+                }
+                if (cursor + minutes <= starts[i]){
+                    gaps = append(gaps, count, cursor, starts[i]);
+                    count += 2;
+                }
+                cursor = Math.max(cursor, finishes[i]);
+            }
+            if (count < 2 * limit && cursor + minutes <= to){
+                gaps = append(gaps, count, cursor, to);
+                count += 2;
+            }
+            return Arrays.copyOf(gaps, count);
+        }
+
+        private static long[] append(long[] pairs, int count, long start, long finish){
+            if (count == pairs.length){
+                pairs = Arrays.copyOf(pairs, Math.max(2, count * 2));
+            }
+            pairs[count] = start;
+            pairs[count + 1] = finish;
+            return pairs;
+        }
+
+        static long[] tail(long cursor, long to, long minutes){
+            return cursor + minutes <= to ? new long[] {cursor, to} : NO_GAPS;
+        }
+
+        private int firstStartingAtOrAfter(long start){
+            int low = 0;
+            int high = size;
+            while (low < high){
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < start){
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.services;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Room;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.repositories.RoomRepository;
+
+/**
+ * Saves appointments in a transaction of their own, so the room they refer to
+ * is resolved in the same persistence context as the insert.
+ */
+@Service
+public class AppointmentStore {
+
+    private final AppointmentRepository appointmentRepository;
+    private final RoomRepository roomRepository;
+
+    public AppointmentStore(AppointmentRepository appointmentRepository, RoomRepository roomRepository){
+        this.appointmentRepository = appointmentRepository;
+        this.roomRepository = roomRepository;
+    }
+
+    @Transactional
+    public Appointment save(Appointment appointment){
+        if (appointment.getRoom() != null){
+            // Book into the stored room rather than cascading a second insert of it
+            roomRepository.findByRoomName(appointment.getRoom().getRoomName()).ifPresent(appointment::setRoom);
+        }
+        return appointmentRepository.save(appointment);
+    }
+
+    /**
+     * Saves an appointment that refers to its patient, doctor and room by key,
+     * see {@link AppointmentRepository#persistByReference}.
+     */
+    @Transactional
+    public Appointment saveByReference(Appointment appointment){
+        return appointmentRepository.persistByReference(appointment);
+    }
+
+    /**
+     * Saves a batch in one transaction. Each room is looked up once and shared
+     * by all the appointments booked into it, and the inserts go out in JDBC
+     * batches.
+     */
+    @Transactional
+    public void saveAll(List<Appointment> appointments){
+        Map<String, Room> rooms = new HashMap<>();
+        for (Appointment appointment : appointments){
+            if (appointment.getRoom() != null){
+                Room room = appointment.getRoom();
+                appointment.setRoom(rooms.computeIfAbsent(room.getRoomName(),
+                        roomName -> roomRepository.findByRoomName(roomName).orElse(room)));
+            }
+        }
+        appointmentRepository.saveAll(appointments);
+    }
+}
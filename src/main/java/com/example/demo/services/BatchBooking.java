@@ -0,0 +1,174 @@
+package com.example.demo.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dto.AppointmentInterval;
+import com.example.demo.dto.BookingResult;
+import com.example.demo.entities.Appointment;
+import com.example.demo.repositories.AppointmentRepository;
+
+/**
+ * Books a whole list of appointments at once. The batch is sorted by room and
+ * start, and each room is checked in a single sweep that merges its slice of
+ * the batch with the stored appointments of the same period, so the cost is
+ * one indexed query per room instead of one per appointment.
+ */
+@Service
+public class BatchBooking {
+
+    static final String INVALID = "finishesAt must be after startsAt";
+    static final String OVERLAPS_EXISTING = "overlaps an existing appointment";
+    static final String OVERLAPS_BATCH = "overlaps an earlier appointment of the batch";
+    static final String BATCH_REJECTED = "not saved because other appointments of the batch were rejected";
+    static final String CONCURRENT_BOOKING = "not saved because a slot was booked concurrently";
+
+    private static final Comparator<Appointment> BY_ROOM_AND_START = Comparator
+            .comparing((Appointment a) -> a.getRoom() == null ? null : a.getRoom().getRoomName(),
+                    Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Appointment::getStartsAt);
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentStore appointmentStore;
+    private final AppointmentIndex appointmentIndex;
+    private final RoomAvailability roomAvailability;
+    private final RoomLocks roomLocks;
+    private final SlotLedger slotLedger;
+
+    public BatchBooking(AppointmentRepository appointmentRepository, AppointmentStore appointmentStore,
+            AppointmentIndex appointmentIndex, RoomAvailability roomAvailability, RoomLocks roomLocks, SlotLedger slotLedger){
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentStore = appointmentStore;
+        this.appointmentIndex = appointmentIndex;
+        this.roomAvailability = roomAvailability;
+        this.roomLocks = roomLocks;
+        this.slotLedger = slotLedger;
+    }
+
+    /**
+     * Returns one result per appointment, in request order. In all-or-nothing
+     * mode nothing is saved unless every appointment is accepted.
+     */
+    public List<BookingResult> book(List<Appointment> appointments, boolean allOrNothing){
+        BookingResult[] results = new BookingResult[appointments.size()];
+        List<Integer> order = new ArrayList<>();
+        Set<String> roomNames = new LinkedHashSet<>();
+        for (int i = 0; i < appointments.size(); i++){
+            Appointment appointment = appointments.get(i);
+            if (appointment.getStartsAt() == null || appointment.getFinishesAt() == null
+                    || !appointment.getFinishesAt().isAfter(appointment.getStartsAt())){
+                results[i] = BookingResult.rejected(i, INVALID);
+                continue;
+            }
+            order.add(i);
+            if (appointment.getRoom() != null){
+                roomNames.add(appointment.getRoom().getRoomName());
+            }
+        }
+        // Stable, so appointments with the same room and start keep request order
+        order.sort(Comparator.comparing(appointments::get, BY_ROOM_AND_START));
+
+        List<Lock> locks = roomLocks.forRooms(roomNames);
+        locks.forEach(Lock::lock);
+        try {
+            List<Integer> accepted = sweep(appointments, order, results);
+            if (allOrNothing && accepted.size() < appointments.size()){
+                reject(accepted, results, BATCH_REJECTED);
+                return Arrays.asList(results);
+            }
+            save(appointments, accepted, results);
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--){
+                locks.get(i).unlock();
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private List<Integer> sweep(List<Appointment> appointments, List<Integer> order, BookingResult[] results){
+        List<Integer> accepted = new ArrayList<>();
+        int run = 0;
+        while (run < order.size()){
+            Appointment first = appointments.get(order.get(run));
+            if (first.getRoom() == null){
+                // Appointments without a room never conflict
+                accepted.add(order.get(run++));
+                continue;
+            }
+            String roomName = first.getRoom().getRoomName();
+            int end = run;
+            LocalDateTime finishesAt = first.getFinishesAt();
+            while (end < order.size() && roomName.equals(appointments.get(order.get(end)).getRoom().getRoomName())){
+                LocalDateTime finish = appointments.get(order.get(end)).getFinishesAt();
+                finishesAt = finish.isAfter(finishesAt) ? finish : finishesAt;
+                end++;
+            }
+
+            List<AppointmentInterval> existing = appointmentRepository.findIntervals(roomName, first.getStartsAt(), finishesAt);
+            int next = 0;
+            LocalDateTime existingUntil = LocalDateTime.MIN;
+            LocalDateTime batchUntil = LocalDateTime.MIN;
+            for (int k = run; k < end; k++){
+                int i = order.get(k);
+                Appointment appointment = appointments.get(i);
+                while (next < existing.size() && existing.get(next).getStartsAt().isBefore(appointment.getStartsAt())){
+                    LocalDateTime finish = existing.get(next++).getFinishesAt();
+                    existingUntil = finish.isAfter(existingUntil) ? finish : existingUntil;
+                }
+                if (existingUntil.isAfter(appointment.getStartsAt())
+                        || (next < existing.size() && existing.get(next).overlaps(appointment.getStartsAt(), appointment.getFinishesAt()))){
+                    results[i] = BookingResult.rejected(i, OVERLAPS_EXISTING);
+                } else if (batchUntil.isAfter(appointment.getStartsAt())){
+                    results[i] = BookingResult.rejected(i, OVERLAPS_BATCH);
+                } else {
+                    batchUntil = appointment.getFinishesAt();
+                    accepted.add(i);
+                }
+            }
+            run = end;
+        }
+        return accepted;
+    }
+
+    private void save(List<Appointment> appointments, List<Integer> accepted, BookingResult[] results){
+        List<Appointment> batch = new ArrayList<>(accepted.size());
+        for (int i : accepted){
+            Appointment appointment = appointments.get(i);
+            if (slotLedger.isEnabled() && appointment.getRoom() != null){
+                slotLedger.reserve(appointment);
+            }
+            batch.add(appointment);
+        }
+        try {
+            appointmentStore.saveAll(batch);
+        } catch (DataIntegrityViolationException e) {
+            // Only another instance can hold the slot, as our rooms are locked
+            if (SlotLedger.isSlotConflict(e)) {
+                reject(accepted, results, CONCURRENT_BOOKING);
+                return;
+            }
+            throw e;
+        }
+        for (int i : accepted){
+            Appointment appointment = appointments.get(i);
+            appointmentIndex.add(appointment);
+            roomAvailability.add(appointment);
+            results[i] = BookingResult.accepted(i, appointment.getId());
+        }
+    }
+
+    private static void reject(List<Integer> indexes, BookingResult[] results, String reason){
+        for (int i : indexes){
+            results[i] = BookingResult.rejected(i, reason);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.services;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Inserts a list of new entities in one transaction. The ids come in blocks
+ * from the pooled generator, so nothing is read back per row and Hibernate
+ * sends the inserts in JDBC batches of hibernate.jdbc.batch_size; the
+ * persistence context is flushed and cleared after each batch so it stays
+ * small whatever the list size.
+ *
+ * On MySQL the driver only turns a batch into multi-row inserts with
+ * rewriteBatchedStatements=true in the JDBC URL.
+ */
+@Service
+public class BatchInsert {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public BatchInsert(PlatformTransactionManager transactionManager,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize){
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Persists the given entities, which get their ids, and returns them.
+     */
+    public <T> List<T> insert(List<T> entities){
+        transactionTemplate.executeWithoutResult(status -> {
+            // New rows are not worth a second-level cache entry each
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+            for (int i = 0; i < entities.size(); i++){
+                entityManager.persist(entities.get(i));
+                if ((i + 1) % batchSize == 0){
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        return entities;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.demo.services;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.AppointmentInterval;
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+import com.example.demo.entities.Room;
+
+/**
+ * Deletes rows with JPQL bulk statements instead of loading and removing
+ * entities one by one. Large deletes go in chunks of ids, each chunk in a
+ * transaction of its own, so neither the persistence context nor the
+ * database's undo log grows with the table. Hibernate evicts the cached
+ * entities of a bulk-deleted type itself.
+ */
+@Service
+public class BulkDelete {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final AppointmentIndex appointmentIndex;
+    private final RoomAvailability roomAvailability;
+    private final RoomLocks roomLocks;
+    private final int chunkSize;
+
+    public BulkDelete(PlatformTransactionManager transactionManager, AppointmentIndex appointmentIndex,
+            RoomAvailability roomAvailability, RoomLocks roomLocks, @Value("${bulk-delete.chunk-size:1000}") int chunkSize){
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.appointmentIndex = appointmentIndex;
+        this.roomAvailability = roomAvailability;
+        this.roomLocks = roomLocks;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Deletes one appointment, returning whether it existed.
+     */
+    public boolean appointment(long id){
+        List<Long> ids = Collections.singletonList(id);
+        Integer deleted = transactionTemplate.execute(status -> deleteAppointments(ids));
+        forget(ids);
+        return deleted > 0;
+    }
+
+    /**
+     * Deletes the appointments starting before the given time.
+     */
+    public long appointmentsBefore(LocalDateTime before){
+        long deleted = 0;
+        List<Long> ids;
+        do {
+            ids = transactionTemplate.execute(status -> {
+                List<Long> chunk = entityManager
+                        .createQuery("select a.id from Appointment a where a.startsAt < :before", Long.class)
+                        .setParameter("before", before)
+                        .setMaxResults(chunkSize)
+                        .getResultList();
+                deleteAppointments(chunk);
+                return chunk;
+            });
+            forget(ids);
+            deleted += ids.size();
+        } while (ids.size() == chunkSize);
+        return deleted;
+    }
+
+    public long allAppointments(){
+        long deleted = deleteAllAppointments();
+        // A booking holds its room's lock until the index knows it, so with every
+        // lock held none can commit between the last chunk and the clear
+        List<Lock> locks = roomLocks.all();
+        locks.forEach(Lock::lock);
+        try {
+            deleted += deleteAllAppointments();
+            appointmentIndex.clear();
+            roomAvailability.clear();
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--){
+                locks.get(i).unlock();
+            }
+        }
+        return deleted;
+    }
+
+    private long deleteAllAppointments(){
+        long deleted = 0;
+        List<Long> ids;
+        do {
+            ids = transactionTemplate.execute(status -> {
+                List<Long> chunk = firstIds("Appointment");
+                deleteAppointments(chunk);
+                return chunk;
+            });
+            deleted += ids.size();
+        } while (ids.size() == chunkSize);
+        return deleted;
+    }
+
+    public long allPatients(){
+        return all("Patient");
+    }
+
+    public long allDoctors(){
+        return all("Doctor");
+    }
+
+    private long all(String entity){
+        long deleted = 0;
+        int count;
+        do {
+            count = transactionTemplate.execute(status -> {
+                List<Long> chunk = firstIds(entity);
+                return chunk.isEmpty() ? 0 : entityManager.createQuery("delete from " + entity + " e where e.id in :ids")
+                        .setParameter("ids", chunk)
+                        .executeUpdate();
+            });
+            deleted += count;
+        } while (count == chunkSize);
+        return deleted;
+    }
+
+    private List<Long> firstIds(String entity){
+        TypedQuery<Long> query = entityManager.createQuery("select e.id from " + entity + " e", Long.class);
+        return query.setMaxResults(chunkSize).getResultList();
+    }
+
+    /**
+     * Appointments cascade removal to their patient, doctor and room, which a
+     * bulk delete does not, so those left without appointments are removed
+     * here as well. They go through the entity manager, one by one: a bulk
+     * delete would evict their whole cache region.
+     */
+    private int deleteAppointments(List<Long> ids){
+        if (ids.isEmpty()){
+            return 0;
+        }
+        Set<Long> patients = new HashSet<>();
+        Set<Long> doctors = new HashSet<>();
+        Set<String> rooms = new HashSet<>();
+        // Each party comes with the number of appointments left to it
+        List<Object[]> parties = entityManager.createQuery("select p.id, d.id, r.roomName, "
+                + "(select count(o) from Appointment o where o.patient = p and o.id not in :ids), "
+                + "(select count(o) from Appointment o where o.doctor = d and o.id not in :ids), "
+                + "(select count(o) from Appointment o where o.room = r and o.id not in :ids) "
+                + "from Appointment a left join a.patient p left join a.doctor d left join a.room r where a.id in :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList();
+        for (Object[] party : parties){
+            addIfUnreferenced(patients, (Long) party[0], (Long) party[3]);
+            addIfUnreferenced(doctors, (Long) party[1], (Long) party[4]);
+            addIfUnreferenced(rooms, (String) party[2], (Long) party[5]);
+        }
+        // Room slots go by orphan removal, which a bulk delete skips too
+        entityManager.createQuery("delete from RoomSlot s where s.id.appointmentId in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        int deleted = entityManager.createQuery("delete from Appointment a where a.id in :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        remove(Patient.class, patients);
+        remove(Doctor.class, doctors);
+        remove(Room.class, rooms);
+        return deleted;
+    }
+
+    private <K> void remove(Class<?> entity, Set<K> keys){
+        for (K key : keys){
+            // Usually a cache hit, and the delete evicts this entry only
+            Object party = entityManager.find(entity, key);
+            if (party != null){
+                entityManager.remove(party);
+            }
+        }
+    }
+
+    private static <K> void addIfUnreferenced(Set<K> keys, K key, Long references){
+        if (key != null && references != null && references == 0){
+            keys.add(key);
+        }
+    }
+
+    private void forget(List<Long> ids){
+        for (long id : ids){
+            AppointmentInterval removed = appointmentIndex.remove(id);
+            if (removed != null){
+                roomAvailability.remove(removed);
+            }
+        }
+    }
+}
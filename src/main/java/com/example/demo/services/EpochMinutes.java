@@ -0,0 +1,30 @@
+package com.example.demo.services;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Conversions between appointment times and minutes since the epoch, the
+ * unit the in-memory schedules are kept in.
+ */
+final class EpochMinutes {
+
+    static final int MINUTES_PER_DAY = 1440;
+
+    private EpochMinutes(){
+    }
+
+    static long floor(LocalDateTime time){
+        return time.toLocalDate().toEpochDay() * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+    }
+
+    // Partial minutes count as occupied, so ends are rounded up
+    static long ceil(LocalDateTime time){
+        LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+        return floor(time) + (minute.equals(time) ? 0 : 1);
+    }
+
+    static LocalDateTime toDateTime(long epochMinute){
+        return LocalDateTime.of(1970, 1, 1, 0, 0).plusMinutes(epochMinute);
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.demo.services;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dto.AppointmentInterval;
+import com.example.demo.dto.FreeSlot;
+import com.example.demo.entities.Appointment;
+
+/**
+ * Minute-resolution occupancy bitmaps, one per room and day, kept off-heap in
+ * direct buffers so that millions of room-days cost the garbage collector
+ * nothing. A day is 1440 bits packed into 23 longs; checking a booking is a
+ * word-level AND of its mask against the stored words of the days it spans.
+ *
+ * Bitmaps are derived from {@link AppointmentIndex}, which stays the source of
+ * truth for which appointments exist.
+ */
+@Component
+public class RoomAvailability {
+
+    static final int MINUTES_PER_DAY = EpochMinutes.MINUTES_PER_DAY;
+    static final int WORDS_PER_DAY = (MINUTES_PER_DAY + 63) / 64;
+
+    private static final int DAYS_PER_SLAB = 4096;
+
+    private final AppointmentIndex appointmentIndex;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> roomIds = new HashMap<>();
+    private final List<LongBuffer> slabs = new ArrayList<>();
+    private DayTable days = new DayTable();
+
+    public RoomAvailability(AppointmentIndex appointmentIndex){
+        this.appointmentIndex = appointmentIndex;
+    }
+
+    @PostConstruct
+    public void rebuild(){
+        lock.writeLock().lock();
+        try {
+            reset();
+            for (AppointmentInterval interval : appointmentIndex.intervals()){
+                mark(interval.getRoomName(), interval.getStartsAt(), interval.getFinishesAt());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean conflicts(Appointment appointment){
+        if (appointment.getRoom() == null){
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            Integer roomId = roomIds.get(appointment.getRoom().getRoomName());
+            if (roomId == null){
+                return false;
+            }
+            long from = EpochMinutes.floor(appointment.getStartsAt());
+            long to = EpochMinutes.ceil(appointment.getFinishesAt());
+            for (long day = Math.floorDiv(from, MINUTES_PER_DAY); day * MINUTES_PER_DAY < to; day++){
+                int slot = days.get(key(roomId, day));
+                if (slot >= 0 && intersects(slot, minuteInDay(from, day), minuteInDay(to, day))){
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(Appointment appointment){
+        if (appointment.getRoom() != null){
+            add(AppointmentInterval.of(appointment));
+        }
+    }
+
+    public void add(AppointmentInterval interval){
+        lock.writeLock().lock();
+        try {
+            mark(interval.getRoomName(), interval.getStartsAt(), interval.getFinishesAt());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Frees the minutes of an appointment already removed from the index, then
+     * marks again whatever other appointment of the room still covers them.
+     */
+    public void remove(AppointmentInterval interval){
+        lock.writeLock().lock();
+        try {
+            Integer roomId = roomIds.get(interval.getRoomName());
+            if (roomId == null){
+                return;
+            }
+            long from = EpochMinutes.floor(interval.getStartsAt());
+            long to = EpochMinutes.ceil(interval.getFinishesAt());
+            for (long day = Math.floorDiv(from, MINUTES_PER_DAY); day * MINUTES_PER_DAY < to; day++){
+                int slot = days.get(key(roomId, day));
+                if (slot >= 0){
+                    apply(slot, minuteInDay(from, day), minuteInDay(to, day), false);
+                }
+            }
+            for (AppointmentInterval other : appointmentIndex.intervals(interval.getRoomName(), interval.getStartsAt(), interval.getFinishesAt())){
+                mark(other.getRoomName(), other.getStartsAt(), other.getFinishesAt());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear(){
+        lock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The free stretches of a room on a given day, read from its bitmap only.
+     */
+    public List<FreeSlot> freeSlots(String roomName, LocalDate date){
+        long[] words = new long[WORDS_PER_DAY];
+        lock.readLock().lock();
+        try {
+            Integer roomId = roomIds.get(roomName);
+            int slot = roomId == null ? -1 : days.get(key(roomId, date.toEpochDay()));
+            if (slot >= 0){
+                LongBuffer slab = slabs.get(slot / DAYS_PER_SLAB);
+                int base = (slot % DAYS_PER_SLAB) * WORDS_PER_DAY;
+                for (int w = 0; w < WORDS_PER_DAY; w++){
+                    words[w] = slab.get(base + w);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<FreeSlot> free = new ArrayList<>();
+        LocalDateTime midnight = date.atStartOfDay();
+        int minute = 0;
+        while (minute < MINUTES_PER_DAY){
+            int start = nextClear(words, minute);
+            if (start >= MINUTES_PER_DAY){
+                break;
+            }
+            int end = Math.min(nextSet(words, start), MINUTES_PER_DAY);
+            free.add(new FreeSlot(roomName, midnight.plusMinutes(start), midnight.plusMinutes(end)));
+            minute = end;
+        }
+        return free;
+    }
+
+    public int getRoomDays(){
+        lock.readLock().lock();
+        try {
+            return days.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getOffHeapBytes(){
+        lock.readLock().lock();
+        try {
+            return (long) slabs.size() * DAYS_PER_SLAB * WORDS_PER_DAY * Long.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reset(){
+        roomIds.clear();
+        slabs.clear();
+        days = new DayTable();
+    }
+
+    private void mark(String roomName, LocalDateTime startsAt, LocalDateTime finishesAt){
+        int roomId = roomIds.computeIfAbsent(roomName, name -> roomIds.size());
+        long from = EpochMinutes.floor(startsAt);
+        long to = EpochMinutes.ceil(finishesAt);
+        for (long day = Math.floorDiv(from, MINUTES_PER_DAY); day * MINUTES_PER_DAY < to; day++){
+            long key = key(roomId, day);
+            int slot = days.get(key);
+            if (slot < 0){
+                slot = allocateDay();
+                days.put(key, slot);
+            }
+            apply(slot, minuteInDay(from, day), minuteInDay(to, day), true);
+        }
+    }
+
+    private int allocateDay(){
+        int slot = days.size();
+        if (slot / DAYS_PER_SLAB == slabs.size()){
+            // allocateDirect zero-fills, so a fresh day starts completely free
+            slabs.add(ByteBuffer.allocateDirect(DAYS_PER_SLAB * WORDS_PER_DAY * Long.BYTES)
+                    .order(ByteOrder.nativeOrder()).asLongBuffer());
+        }
+        return slot;
+    }
+
+    private boolean intersects(int slot, int from, int to){
+        if (from >= to){
+            return false;
+        }
+        LongBuffer slab = slabs.get(slot / DAYS_PER_SLAB);
+        int base = (slot % DAYS_PER_SLAB) * WORDS_PER_DAY;
+        for (int w = from >>> 6; w <= (to - 1) >>> 6; w++){
+            if ((slab.get(base + w) & mask(w, from, to)) != 0){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void apply(int slot, int from, int to, boolean set){
+        if (from >= to){
+            return;
+        }
+        LongBuffer slab = slabs.get(slot / DAYS_PER_SLAB);
+        int base = (slot % DAYS_PER_SLAB) * WORDS_PER_DAY;
+        for (int w = from >>> 6; w <= (to - 1) >>> 6; w++){
+            long word = slab.get(base + w);
+            long mask = mask(w, from, to);
+            slab.put(base + w, set ? word | mask : word & ~mask);
+        }
+    }
+
+    // Bits of word w that fall inside minutes [from, to)
+    private static long mask(int w, int from, int to){
+        long mask = -1L;
+        if (w == from >>> 6){
+            mask &= -1L << (from & 63);
+        }
+        if (w == (to - 1) >>> 6){
+            mask &= -1L >>> (63 - ((to - 1) & 63));
+        }
+        return mask;
+    }
+
+    private static int nextClear(long[] words, int from){
+        for (int w = from >>> 6; w < words.length; w++){
+            long free = ~words[w] & (w == from >>> 6 ? -1L << (from & 63) : -1L);
+            if (free != 0){
+                return (w << 6) + Long.numberOfTrailingZeros(free);
+            }
+        }
+        return MINUTES_PER_DAY;
+    }
+
+    private static int nextSet(long[] words, int from){
+        for (int w = from >>> 6; w < words.length; w++){
+            long used = words[w] & (w == from >>> 6 ? -1L << (from & 63) : -1L);
+            if (used != 0){
+                return (w << 6) + Long.numberOfTrailingZeros(used);
+            }
+        }
+        return MINUTES_PER_DAY;
+    }
+
+    // Clamps an epoch minute to [0, 1440] relative to the given day
+    private static int minuteInDay(long epochMinute, long day){
+        return (int) Math.max(0, Math.min(MINUTES_PER_DAY, epochMinute - day * MINUTES_PER_DAY));
+    }
+
+    private static long key(int roomId, long day){
+        return ((long) roomId << 32) | (day & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Open-addressing map from (room, day) keys to day slots, kept in two
+     * primitive arrays so it holds no objects per entry either.
+     */
+    private static class DayTable {
+
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys = newKeys(1024);
+        private int[] values = new int[1024];
+        private int size;
+
+        int get(long key){
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask){
+                if (keys[i] == key){
+                    return values[i];
+                }
+                if (keys[i] == EMPTY){
+                    return -1;
+                }
+            }
+        }
+
+        void put(long key, int value){
+            if ((size + 1) * 2 > keys.length){
+                grow();
+            }
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != EMPTY && keys[i] != key){
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY){
+                size++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        int size(){
+            return size;
+        }
+
+        private void grow(){
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++){
+                if (oldKeys[i] != EMPTY){
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static long[] newKeys(int capacity){
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int hash(long key){
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
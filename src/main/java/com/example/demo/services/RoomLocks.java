@@ -0,0 +1,77 @@
+package com.example.demo.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Striped locks keyed by room name. Bookings for the same room always map to
+ * the same lock, so their check-then-save is serialized, while bookings for
+ * other rooms hash to other stripes and proceed in parallel. The number of
+ * stripes is fixed, so memory does not grow with the number of rooms.
+ */
+@Component
+public class RoomLocks {
+
+    private final Lock[] stripes;
+
+    public RoomLocks(@Value("${appointments.room-lock-stripes:64}") int stripeCount){
+        if (stripeCount <= 0){
+            throw new IllegalArgumentException("appointments.room-lock-stripes must be positive");
+        }
+        // Round up to a power of two so the stripe can be picked with a mask
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount){
+            size <<= 1;
+        }
+        this.stripes = new Lock[size];
+        for (int i = 0; i < size; i++){
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public Lock forRoom(String roomName){
+        return stripes[stripeOf(roomName)];
+    }
+
+    /**
+     * The distinct stripes of the given rooms in stripe order. Taking them in
+     * this order keeps two batches over overlapping rooms from deadlocking.
+     */
+    public List<Lock> forRooms(Collection<String> roomNames){
+        SortedSet<Integer> indexes = new TreeSet<>();
+        for (String roomName : roomNames){
+            indexes.add(stripeOf(roomName));
+        }
+        List<Lock> locks = new ArrayList<>(indexes.size());
+        for (int index : indexes){
+            locks.add(stripes[index]);
+        }
+        return locks;
+    }
+
+    /**
+     * Every stripe, in the order {@link #forRooms} takes them.
+     */
+    public List<Lock> all(){
+        return Arrays.asList(stripes);
+    }
+
+    public int stripeOf(String roomName){
+        int h = roomName == null ? 0 : roomName.hashCode();
+        // Spread the high bits down, as HashMap does, before masking
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+
+    public int getStripeCount(){
+        return stripes.length;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.services;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.RoomSlot;
+
+/**
+ * Optional "slot ledger" mode. Each booked appointment also holds every
+ * fixed-size bucket of its room it touches, stored in room_slot. The rows are
+ * inserted in the same transaction as the appointment, so a conflict booked
+ * by any instance of the application is rejected by the unique key instead
+ * of by a read before the write.
+ *
+ * Only appointments booked while the ledger is enabled hold slots.
+ */
+@Component
+public class SlotLedger {
+
+    private final boolean enabled;
+    private final long granularityMinutes;
+
+    public SlotLedger(@Value("${appointments.slot-ledger.enabled:false}") boolean enabled,
+            @Value("${appointments.slot-ledger.granularity-minutes:5}") long granularityMinutes){
+        if (granularityMinutes <= 0 || 1440 % granularityMinutes != 0){
+            throw new IllegalArgumentException("appointments.slot-ledger.granularity-minutes must divide a day");
+        }
+        this.enabled = enabled;
+        this.granularityMinutes = granularityMinutes;
+    }
+
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    /**
+     * Adds to the appointment one slot per bucket between the bucket holding
+     * its start and the bucket holding the last minute before its finish.
+     */
+    public void reserve(Appointment appointment){
+        String roomName = appointment.getRoom().getRoomName();
+        appointment.getSlots().clear();
+        LocalDateTime slot = bucketOf(appointment.getStartsAt());
+        while (slot.isBefore(appointment.getFinishesAt())){
+            appointment.getSlots().add(new RoomSlot(appointment, roomName, slot));
+            slot = slot.plusMinutes(granularityMinutes);
+        }
+    }
+
+    public LocalDateTime bucketOf(LocalDateTime time){
+        LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+        long minuteOfDay = minute.getHour() * 60L + minute.getMinute();
+        return minute.minusMinutes(minuteOfDay % granularityMinutes);
+    }
+
+    /**
+     * True when the failure is the room_slot unique key, i.e. one of the
+     * buckets is already held by another appointment.
+     */
+    public static boolean isSlotConflict(Throwable failure){
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()){
+            if (cause instanceof ConstraintViolationException){
+                String constraint = ((ConstraintViolationException) cause).getConstraintName();
+                return constraint != null && constraint.toLowerCase().contains(RoomSlot.UNIQUE_KEY);
+            }
+        }
+        return false;
+    }
+}
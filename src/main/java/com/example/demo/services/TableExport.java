@@ -0,0 +1,138 @@
+package com.example.demo.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.demo.entities.Appointment;
+import com.example.demo.entities.Doctor;
+import com.example.demo.entities.Patient;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Streams a whole table as JSON without holding it in memory. Rows are read
+ * with a forward-only Hibernate scroll in a read-only transaction, written to
+ * the Jackson generator as they arrive and detached right after, so the
+ * persistence context and the heap stay flat whatever the table size.
+ *
+ * On MySQL the driver only honours the fetch size with useCursorFetch=true in
+ * the JDBC URL; otherwise it reads the whole result set up front.
+ */
+@Service
+public class TableExport {
+
+    public enum Format {
+        /** A single JSON array */
+        JSON(MediaType.APPLICATION_JSON),
+        /** One JSON document per line */
+        NDJSON(MediaType.APPLICATION_NDJSON);
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType){
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType(){
+            return mediaType;
+        }
+
+        /**
+         * The format of the given name, ignoring case, or null if unknown.
+         */
+        public static Format of(String name){
+            for (Format format : values()){
+                if (format.name().equalsIgnoreCase(name)){
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final String APPOINTMENTS = "select a from Appointment a "
+            + "left join fetch a.patient left join fetch a.doctor left join fetch a.room order by a.id";
+    private static final String PATIENTS = "select p from Patient p order by p.id";
+    private static final String DOCTORS = "select d from Doctor d order by d.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter writer;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public TableExport(PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+            @Value("${export.fetch-size:500}") int fetchSize){
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        // The servlet stream is flushed by its own buffer, not after every row
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    public StreamingResponseBody appointments(Format format){
+        return out -> write(APPOINTMENTS, Appointment.class, format, out);
+    }
+
+    public StreamingResponseBody patients(Format format){
+        return out -> write(PATIENTS, Patient.class, format, out);
+    }
+
+    public StreamingResponseBody doctors(Format format){
+        return out -> write(DOCTORS, Doctor.class, format, out);
+    }
+
+    <T> void write(String query, Class<T> type, Format format, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // NDJSON ends every row with a newline instead of separating them with a space
+            generator.setRootValueSeparator(null);
+            if (format == Format.JSON){
+                generator.writeStartArray();
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                try (ScrollableResults rows = entityManager.unwrap(Session.class)
+                        .createQuery(query, type)
+                        .setReadOnly(true)
+                        .setFetchSize(fetchSize)
+                        .scroll(ScrollMode.FORWARD_ONLY)) {
+                    while (rows.next()){
+                        Object row = rows.get(0);
+                        writer.writeValue(generator, row);
+                        if (format == Format.NDJSON){
+                            generator.writeRaw('\n');
+                        }
+                        // Cascades to the patient, doctor and room of an appointment
+                        entityManager.detach(row);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (format == Format.JSON){
+                generator.writeEndArray();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
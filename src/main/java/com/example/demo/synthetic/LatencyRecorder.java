@@ -0,0 +1,54 @@
+package com.example.demo.synthetic;
+
+import java.util.Arrays;
+
+/**
+ * Collects the latencies of one kind of request. Each driver thread owns its
+ * recorders, so recording is an array store; they are merged once at the end.
+ */
+public class LatencyRecorder {
+
+    private long[] nanos = new long[1024];
+    private int count;
+    private int failures;
+
+    public void record(long latencyNanos, boolean failed){
+        if (count == nanos.length){
+            nanos = Arrays.copyOf(nanos, count * 2);
+        }
+        nanos[count++] = latencyNanos;
+        if (failed){
+            failures++;
+        }
+    }
+
+    public void merge(LatencyRecorder other){
+        if (count + other.count > nanos.length){
+            nanos = Arrays.copyOf(nanos, Math.max(count + other.count, nanos.length * 2));
+        }
+        System.arraycopy(other.nanos, 0, nanos, count, other.count);
+        count += other.count;
+        failures += other.failures;
+    }
+
+    public int getCount(){
+        return count;
+    }
+
+    public int getFailures(){
+        return failures;
+    }
+
+    /**
+     * Nearest-rank percentile in milliseconds, e.g. percentile(99.9).
+     */
+    public double percentile(double percent){
+        if (count == 0){
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percent / 100 * count);
+        return sorted[Math.max(0, Math.min(count, rank) - 1)] / 1e6;
+    }
+}
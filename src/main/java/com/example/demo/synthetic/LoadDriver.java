@@ -0,0 +1,327 @@
+package com.example.demo.synthetic;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drives a weighted mix of requests at the four controllers from a pool of
+ * threads when the "load-driver" profile is active, then logs throughput and
+ * latency percentiles per request kind. Ids and room names are sampled from
+ * the database, so it is meant to run after (or together with) the
+ * "synthetic-data" profile.
+ *
+ * The mix is a list of kind:weight pairs, e.g. "get-patient:3,book:1", out of
+ * get-appointment, get-patient, get-doctor, get-room, list-appointments,
+ * list-patients, list-doctors, list-rooms, free-slots and book.
+ */
+@Component
+@Profile("load-driver")
+@Order(2)
+public class LoadDriver implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadDriver.class);
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Environment environment;
+    private final ApplicationContext context;
+
+    private final String baseUrl;
+    private final int threads;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final long seed;
+    private final String mix;
+    private final boolean exit;
+
+    public LoadDriver(JdbcTemplate jdbcTemplate, Environment environment, ApplicationContext context,
+            @Value("${load.base-url:}") String baseUrl,
+            @Value("${load.threads:16}") int threads,
+            @Value("${load.warmup-seconds:5}") int warmupSeconds,
+            @Value("${load.duration-seconds:30}") int durationSeconds,
+            @Value("${load.seed:42}") long seed,
+            @Value("${load.mix:get-appointment:30,get-patient:20,get-doctor:10,get-room:10,list-rooms:5,free-slots:10,book:15}") String mix,
+            @Value("${load.exit:true}") boolean exit){
+        if (threads <= 0 || warmupSeconds < 0 || durationSeconds <= 0){
+            throw new IllegalArgumentException("load.threads and load.duration-seconds must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.environment = environment;
+        this.context = context;
+        this.baseUrl = baseUrl;
+        this.threads = threads;
+        this.warmupSeconds = warmupSeconds;
+        this.durationSeconds = durationSeconds;
+        this.seed = seed;
+        this.mix = mix;
+        this.exit = exit;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        String url = baseUrl.isEmpty() ? "http://localhost:" + environment.getProperty("local.server.port", "8080") : baseUrl;
+        drive(url, warmupSeconds, durationSeconds);
+        if (exit){
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    /**
+     * Runs the mix against the given server and returns the latencies of the
+     * measured period, by request kind.
+     */
+    public Map<String, LatencyRecorder> drive(String url, int warmupSeconds, int durationSeconds) throws Exception {
+        Targets targets = new Targets(jdbcTemplate);
+        Mix weights = Mix.parse(mix);
+        long warmupEnds = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long measureEnds = warmupEnds + durationSeconds * 1_000_000_000L;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Map<String, LatencyRecorder>>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++){
+            Random random = new Random(seed + t);
+            workers.add(pool.submit(() -> {
+                Map<String, LatencyRecorder> recorders = weights.newRecorders();
+                long now;
+                while ((now = System.nanoTime()) < measureEnds){
+                    String kind = weights.pick(random);
+                    boolean failed = !send(url, kind, targets, random);
+                    long latency = System.nanoTime() - now;
+                    if (now >= warmupEnds){
+                        recorders.get(kind).record(latency, failed);
+                    }
+                }
+                return recorders;
+            }));
+        }
+
+        Map<String, LatencyRecorder> total = weights.newRecorders();
+        for (Future<Map<String, LatencyRecorder>> worker : workers){
+            worker.get().forEach((kind, recorder) -> total.get(kind).merge(recorder));
+        }
+        pool.shutdown();
+        report(total, durationSeconds);
+        return total;
+    }
+
+    private boolean send(String url, String kind, Targets targets, Random random){
+        switch (kind){
+            case "get-appointment": return request("GET", url + "/api/appointments/" + targets.appointment(random), null);
+            case "get-patient": return request("GET", url + "/api/patients/" + targets.patient(random), null);
+            case "get-doctor": return request("GET", url + "/api/doctors/" + targets.doctor(random), null);
+            case "get-room": return request("GET", url + "/api/rooms/" + encode(targets.room(random)), null);
+            case "list-appointments": return request("GET", url + "/api/appointments", null);
+            case "list-patients": return request("GET", url + "/api/patients", null);
+            case "list-doctors": return request("GET", url + "/api/doctors", null);
+            case "list-rooms": return request("GET", url + "/api/rooms", null);
+            case "free-slots": {
+                LocalDate day = targets.day(random);
+                return request("GET", url + "/api/rooms/free-slots?duration=30&room=" + encode(targets.room(random))
+                        + "&from=" + encode(day.atTime(8, 0).format(FORMAT)) + "&to=" + encode(day.plusDays(7).atTime(20, 0).format(FORMAT)), null);
+            }
+            case "book": {
+                LocalDateTime startsAt = targets.day(random).atTime(8 + random.nextInt(11), 15 * random.nextInt(4));
+                String body = "{\"patient\":{\"firstName\":\"Jose Luis\",\"lastName\":\"Olaya\",\"age\":37,\"email\":\"j.olaya@email.com\"},"
+                        + "\"doctor\":{\"firstName\":\"Perla\",\"lastName\":\"Amalia\",\"age\":24,\"email\":\"p.amalia@hospital.accwe\"},"
+                        + "\"room\":{\"roomName\":\"" + targets.room(random) + "\"},"
+                        + "\"startsAt\":\"" + startsAt.format(FORMAT) + "\",\"finishesAt\":\"" + startsAt.plusMinutes(30).format(FORMAT) + "\"}";
+                return request("POST", url + "/api/appointment", body);
+            }
+            default: throw new IllegalArgumentException("Unknown request kind " + kind);
+        }
+    }
+
+    /**
+     * False on server errors and I/O failures. Client errors such as a 404
+     * for a deleted id or a 406 for a conflicting booking are valid answers.
+     */
+    private static boolean request(String method, String url, String body){
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setRequestMethod(method);
+            if (body != null){
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()){
+                    out.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            // Drain the body so the connection goes back to the keep-alive pool
+            InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (in != null){
+                byte[] buffer = new byte[8192];
+                while (in.read(buffer) >= 0){
+                    // discard
+                }
+                in.close();
+            }
+            return status < 500;
+        } catch (IOException e) {
+            if (connection != null){
+                connection.disconnect();
+            }
+            return false;
+        }
+    }
+
+    private static String encode(String value){
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void report(Map<String, LatencyRecorder> recorders, int durationSeconds){
+        int requests = 0;
+        log.info(String.format("%-18s %9s %8s %9s %9s %9s %9s %9s %9s", "request", "count", "failed", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()){
+            LatencyRecorder recorder = entry.getValue();
+            requests += recorder.getCount();
+            log.info(String.format("%-18s %9d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f", entry.getKey(), recorder.getCount(),
+                    recorder.getFailures(), recorder.getCount() / (double) durationSeconds, recorder.percentile(50),
+                    recorder.percentile(90), recorder.percentile(99), recorder.percentile(99.9), recorder.percentile(100)));
+        }
+        log.info(String.format("Load driver: %d requests in %d s, %.1f req/s", requests, durationSeconds, requests / (double) durationSeconds));
+    }
+
+    /**
+     * Request kinds with cumulative weights, picked by a weighted draw.
+     */
+    private static class Mix {
+
+        private final String[] kinds;
+        private final int[] cumulative;
+
+        private Mix(String[] kinds, int[] cumulative){
+            this.kinds = kinds;
+            this.cumulative = cumulative;
+        }
+
+        static Mix parse(String mix){
+            String[] entries = mix.split(",");
+            String[] kinds = new String[entries.length];
+            int[] cumulative = new int[entries.length];
+            int sum = 0;
+            for (int i = 0; i < entries.length; i++){
+                String[] pair = entries[i].trim().split(":");
+                kinds[i] = pair[0];
+                sum += Integer.parseInt(pair[1]);
+                cumulative[i] = sum;
+            }
+            if (sum <= 0){
+                throw new IllegalArgumentException("load.mix needs a positive weight");
+            }
+            return new Mix(kinds, cumulative);
+        }
+
+        String pick(Random random){
+            int draw = random.nextInt(cumulative[cumulative.length - 1]);
+            int i = 0;
+            while (cumulative[i] <= draw){
+                i++;
+            }
+            return kinds[i];
+        }
+
+        Map<String, LatencyRecorder> newRecorders(){
+            Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+            for (String kind : kinds){
+                recorders.put(kind, new LatencyRecorder());
+            }
+            return recorders;
+        }
+    }
+
+    /**
+     * What requests can point at: id ranges, room names and booked days.
+     */
+    private static class Targets {
+
+        private final long[] appointments;
+        private final long[] patients;
+        private final long[] doctors;
+        private final List<String> rooms;
+        private final LocalDate firstDay;
+        private final int days;
+
+        Targets(JdbcTemplate jdbcTemplate){
+            appointments = range(jdbcTemplate, "appointment");
+            patients = range(jdbcTemplate, "patient");
+            doctors = range(jdbcTemplate, "doctors");
+            rooms = jdbcTemplate.queryForList("select room_name from room", String.class);
+            if (rooms.isEmpty()){
+                throw new IllegalStateException("No rooms to drive load at, run with the synthetic-data profile first");
+            }
+            Date first = jdbcTemplate.queryForObject("select min(starts_at) from appointment", Date.class);
+            Date last = jdbcTemplate.queryForObject("select max(starts_at) from appointment", Date.class);
+            firstDay = first == null ? LocalDate.now() : first.toLocalDate();
+            days = first == null ? 30 : (int) Math.max(1, last.toLocalDate().toEpochDay() - firstDay.toEpochDay() + 1);
+        }
+
+        long appointment(Random random){
+            return pick(appointments, random);
+        }
+
+        long patient(Random random){
+            return pick(patients, random);
+        }
+
+        long doctor(Random random){
+            return pick(doctors, random);
+        }
+
+        String room(Random random){
+            return rooms.get(random.nextInt(rooms.size()));
+        }
+
+        LocalDate day(Random random){
+            return firstDay.plusDays(random.nextInt(days));
+        }
+
+        private static long pick(long[] range, Random random){
+            return range[0] + (long) (random.nextDouble() * (range[1] - range[0] + 1));
+        }
+
+        private static long[] range(JdbcTemplate jdbcTemplate, String table){
+            Map<String, Object> row = jdbcTemplate.queryForMap("select min(id) as low, max(id) as high from " + table);
+            Number low = (Number) row.get("low");
+            Number high = (Number) row.get("high");
+            return low == null ? new long[] {1, 1} : new long[] {low.longValue(), high.longValue()};
+        }
+    }
+}
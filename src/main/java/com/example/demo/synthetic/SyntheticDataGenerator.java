@@ -0,0 +1,227 @@
+package com.example.demo.synthetic;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.services.AppointmentIndex;
+import com.example.demo.services.RoomAvailability;
+
+/**
+ * Fills the database with a deterministic synthetic hospital when the
+ * "synthetic-data" profile is active: doctors, patients, rooms and a schedule
+ * of appointments that never overlap in a room, busier mid-morning and
+ * mid-afternoon than around opening, lunch and closing. The same seed always
+ * produces the same rows.
+ *
+ * Rows are written with JDBC batches rather than through JPA, so millions of
+ * appointments load in minutes. On MySQL add rewriteBatchedStatements=true to
+ * the JDBC URL to get multi-row inserts.
+ */
+@Component
+@Profile("synthetic-data")
+@Order(1)
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    static final int OPENING_MINUTE = 8 * 60;
+    static final int CLOSING_MINUTE = 20 * 60;
+
+    // Chance that a room is in use at each hour of the day, from 08:00 to 19:00
+    private static final double[] BUSY_BY_HOUR = {0.5, 0.9, 0.95, 0.9, 0.7, 0.4, 0.6, 0.85, 0.9, 0.8, 0.6, 0.4};
+    private static final int[] DURATIONS = {15, 30, 30, 30, 45, 60};
+
+    private static final String[] FIRST_NAMES = {"Jose Luis", "Paulino", "Perla", "Miren", "Lucia", "Carmen", "Javier",
+            "Ana", "Manuel", "Isabel", "David", "Laura", "Pablo", "Marta", "Sergio", "Elena", "Jorge", "Sara", "Raul", "Nuria"};
+    private static final String[] LAST_NAMES = {"Olaya", "Antunez", "Amalia", "Iniesta", "Garcia", "Fernandez", "Lopez",
+            "Martinez", "Sanchez", "Perez", "Gomez", "Martin", "Jimenez", "Ruiz", "Hernandez", "Diaz", "Moreno", "Alvarez"};
+    private static final String[] SPECIALTIES = {"Dermatology", "Oncology", "Cardiology", "Neurology", "Pediatrics",
+            "Radiology", "Traumatology", "Ophthalmology", "Gynecology", "Urology"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final AppointmentIndex appointmentIndex;
+    private final RoomAvailability roomAvailability;
+
+    private final long seed;
+    private final int doctors;
+    private final int patients;
+    private final int rooms;
+    private final int appointments;
+    private final int batchSize;
+    private final LocalDate startDate;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory, AppointmentIndex appointmentIndex, RoomAvailability roomAvailability,
+            @Value("${synthetic.seed:42}") long seed,
+            @Value("${synthetic.doctors:2000}") int doctors,
+            @Value("${synthetic.patients:200000}") int patients,
+            @Value("${synthetic.rooms:300}") int rooms,
+            @Value("${synthetic.appointments:2000000}") int appointments,
+            @Value("${synthetic.batch-size:1000}") int batchSize,
+            @Value("${synthetic.start-date:2023-01-02}") String startDate){
+        if (doctors <= 0 || patients <= 0 || rooms <= 0 || appointments < 0 || batchSize <= 0){
+            throw new IllegalArgumentException("synthetic.* counts must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.appointmentIndex = appointmentIndex;
+        this.roomAvailability = roomAvailability;
+        this.seed = seed;
+        this.doctors = doctors;
+        this.patients = patients;
+        this.rooms = rooms;
+        this.appointments = appointments;
+        this.batchSize = batchSize;
+        this.startDate = LocalDate.parse(startDate);
+    }
+
+    @Override
+    public void run(ApplicationArguments args){
+        generate();
+        // Both were built from the empty database on startup
+        appointmentIndex.rebuild();
+        roomAvailability.rebuild();
+    }
+
+    public void generate(){
+        long start = System.nanoTime();
+        Random random = new Random(seed);
+        long firstId = reserveIds((long) doctors + patients + appointments);
+        long firstDoctor = firstId;
+        long firstPatient = firstDoctor + doctors;
+        long firstAppointment = firstPatient + patients;
+
+        insertPeople("doctors", firstDoctor, doctors, "hospital.accwe", 28, 40, random);
+        insertPeople("patient", firstPatient, patients, "email.com", 0, 95, random);
+        List<String> roomNames = insertRooms();
+        insertAppointments(firstAppointment, firstDoctor, firstPatient, roomNames, random);
+        // The rows went around Hibernate, so cached rooms and query results may be stale
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        log.info("Synthetic data: {} doctors, {} patients, {} rooms and {} appointments loaded in {} ms",
+                doctors, patients, rooms, appointments, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void insertPeople(String table, long firstId, int count, String domain, int minAge, int ageRange, Random random){
+        String sql = "insert into " + table + " (id, first_name, last_name, age, email) values (?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < count; i++){
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String email = (firstName.charAt(0) + "." + lastName + i + "@" + domain).toLowerCase().replace(' ', '.');
+            batch.add(new Object[] {firstId + i, firstName, lastName, minAge + random.nextInt(ageRange), email});
+            flushIfFull(sql, batch);
+        }
+        flush(sql, batch);
+    }
+
+    private List<String> insertRooms(){
+        String sql = "insert into room (room_name) values (?)";
+        List<String> roomNames = new ArrayList<>(rooms);
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < rooms; i++){
+            String roomName = String.format("%s-%03d", SPECIALTIES[i % SPECIALTIES.length], i / SPECIALTIES.length + 1);
+            roomNames.add(roomName);
+            if (jdbcTemplate.queryForObject("select count(*) from room where room_name = ?", Integer.class, roomName) == 0){
+                batch.add(new Object[] {roomName});
+                flushIfFull(sql, batch);
+            }
+        }
+        flush(sql, batch);
+        return roomNames;
+    }
+
+    /**
+     * Walks the calendar from the start date, weekdays only, filling each
+     * room's day from opening to closing: whether a quarter hour is left idle
+     * depends on how busy that hour usually is.
+     */
+    private void insertAppointments(long firstId, long firstDoctor, long firstPatient, List<String> roomNames, Random random){
+        String sql = "insert into appointment (id, patient_id, doctor_id, room_id, starts_at, finishes_at) values (?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        int made = 0;
+        for (LocalDate day = startDate; made < appointments; day = day.plusDays(1)){
+            if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY){
+                continue;
+            }
+            LocalDateTime midnight = day.atStartOfDay();
+            for (int room = 0; room < roomNames.size() && made < appointments; room++){
+                int minute = OPENING_MINUTE;
+                while (made < appointments){
+                    while (minute < CLOSING_MINUTE && random.nextDouble() > BUSY_BY_HOUR[minute / 60 - 8]){
+                        minute += 15;
+                    }
+                    int duration = DURATIONS[random.nextInt(DURATIONS.length)];
+                    if (minute + duration > CLOSING_MINUTE){
+                        break;
+                    }
+                    batch.add(new Object[] {firstId + made, firstPatient + random.nextInt(patients), firstDoctor + random.nextInt(doctors),
+                            roomNames.get(room), Timestamp.valueOf(midnight.plusMinutes(minute)),
+                            Timestamp.valueOf(midnight.plusMinutes(minute + duration))});
+                    flushIfFull(sql, batch);
+                    made++;
+                    minute += duration;
+                }
+            }
+        }
+        flush(sql, batch);
+    }
+
+    private void flushIfFull(String sql, List<Object[]> batch){
+        if (batch.size() == batchSize){
+            flush(sql, batch);
+        }
+    }
+
+    private void flush(String sql, List<Object[]> batch){
+        if (!batch.isEmpty()){
+            jdbcTemplate.batchUpdate(sql, batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Moves hibernate_sequence past the given number of ids and returns the
+     * first of them. The sequence hands out blocks to the pooled id generator
+     * and its value is the start of the next block, so ids below it may still
+     * be held, unused, by a running application.
+     */
+    private long reserveIds(long count){
+        long maxId = 0;
+        for (String table : new String[] {"doctors", "patient", "appointment"}){
+            Long max = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+            maxId = Math.max(maxId, max == null ? 0 : max);
+        }
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        long firstId;
+        if ("H2".equals(product)){
+            firstId = Math.max(maxId + 1, jdbcTemplate.queryForObject("select next value for hibernate_sequence", Long.class));
+            jdbcTemplate.execute("alter sequence hibernate_sequence restart with " + (firstId + count));
+        } else if ("MySQL".equals(product)){
+            firstId = Math.max(maxId + 1, jdbcTemplate.queryForObject("select next_val from hibernate_sequence", Long.class));
+            jdbcTemplate.update("update hibernate_sequence set next_val = ?", firstId + count);
+        } else {
+            throw new IllegalStateException("Synthetic data generation does not support " + product);
+        }
+        return firstId;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+
+import com.example.demo.controllers.AppointmentController;
+import com.example.demo.repositories.*;
+import com.example.demo.entities.*;
+import com.example.demo.services.AppointmentIndex;
+import com.example.demo.services.AppointmentStore;
+import com.example.demo.services.BatchBooking;
+import com.example.demo.services.BulkDelete;
+import com.example.demo.services.RoomAvailability;
+import com.example.demo.services.RoomLocks;
+import com.example.demo.services.SlotLedger;
+import com.example.demo.services.TableExport;
+
+/**
+ * Fires thousands of concurrent, heavily overlapping bookings at the
+ * controller and checks that no room ends up double-booked.
+ */
+@WebMvcTest(AppointmentController.class)
+@Import({AppointmentIndex.class, AppointmentStore.class, BatchBooking.class, RoomAvailability.class, RoomLocks.class, SlotLedger.class})
+class AppointmentBookingStressTest {
+
+    private static final int THREADS = 32;
+    private static final int ROOMS = 8;
+    private static final int SLOTS_PER_ROOM = 50;
+    private static final int BOOKINGS = 4000;
+
+    @MockBean
+    private AppointmentRepository appointmentRepository;
+
+    @MockBean
+    private RoomRepository roomRepository;
+
+    @MockBean
+    private PatientRepository patientRepository;
+
+    @MockBean
+    private DoctorRepository doctorRepository;
+
+    @MockBean
+    private TableExport tableExport;
+
+    @MockBean
+    private BulkDelete bulkDelete;
+
+    @Autowired
+    private AppointmentController appointmentController;
+
+    @Autowired
+    private AppointmentIndex appointmentIndex;
+
+    @Autowired
+    private RoomAvailability roomAvailability;
+
+    private final Queue<Appointment> saved = new ConcurrentLinkedQueue<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp(){
+        appointmentIndex.clear();
+        roomAvailability.clear();
+
+        // Emulates the table: the overlap query sees whatever has been saved so far
+        when(appointmentRepository.existsOverlapping(anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+            .thenAnswer(invocation -> {
+                String roomName = invocation.getArgument(0);
+                LocalDateTime startsAt = invocation.getArgument(1);
+                LocalDateTime finishesAt = invocation.getArgument(2);
+                return saved.stream().anyMatch(a -> a.getRoom().getRoomName().equals(roomName)
+                        && a.getStartsAt().isBefore(finishesAt) && startsAt.isBefore(a.getFinishesAt()));
+            });
+        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(invocation -> {
+            Appointment appointment = invocation.getArgument(0);
+            // Widen the window between check and save so missing locking shows up
+            Thread.yield();
+            appointment.setId(ids.incrementAndGet());
+            saved.add(appointment);
+            return appointment;
+        });
+    }
+
+    @Test
+    void shouldNeverDoubleBookARoomUnderConcurrentLoad() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2023, 4, 24, 8, 0);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HttpStatus>> results = new ArrayList<>();
+
+        for (int i = 0; i < BOOKINGS; i++){
+            int room = i % ROOMS;
+            int slot = (i / ROOMS) % SLOTS_PER_ROOM;
+            // Three staggered variants per slot so requests partially overlap each other
+            LocalDateTime startsAt = base.plusMinutes(slot * 60L + (i % 3) * 20L);
+            Appointment appointment = new Appointment(new Patient(), new Doctor(), new Room("Room-" + room),
+                    startsAt, startsAt.plusMinutes(60));
+            results.add(pool.submit(() -> {
+                start.await();
+                return appointmentController.createAppointment(appointment).getStatusCode();
+            }));
+        }
+
+        start.countDown();
+        int accepted = 0;
+        for (Future<HttpStatus> result : results){
+            HttpStatus status = result.get(1, TimeUnit.MINUTES);
+            assertThat(status).isIn(HttpStatus.OK, HttpStatus.NOT_ACCEPTABLE);
+            if (status == HttpStatus.OK){
+                accepted++;
+            }
+        }
+        pool.shutdown();
+
+        assertThat(saved).hasSize(accepted);
+        Map<String, List<Appointment>> byRoom = saved.stream()
+                .collect(Collectors.groupingBy(a -> a.getRoom().getRoomName()));
+        assertThat(byRoom).hasSize(ROOMS);
+        for (List<Appointment> appointments : byRoom.values()){
+            for (int i = 0; i < appointments.size(); i++){
+                for (int j = i + 1; j < appointments.size(); j++){
+                    Appointment a = appointments.get(i);
+                    Appointment b = appointments.get(j);
+                    assertThat(a.getStartsAt().isBefore(b.getFinishesAt()) && b.getStartsAt().isBefore(a.getFinishesAt()))
+                        .as("appointments %d and %d overlap in %s", a.getId(), b.getId(), a.getRoom().getRoomName())
+                        .isFalse();
+                }
+            }
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.example.demo;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -18,32 +20,75 @@ import java.util.Optional;
 import java.time.LocalDateTime;
 import java.time.format.*;
 
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.mockito.Mockito;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
 import com.example.demo.controllers.AppointmentController;
+import com.example.demo.dto.AppointmentInterval;
+import com.example.demo.dto.CompactAppointment;
 import com.example.demo.repositories.*;
 import com.example.demo.entities.*;
+import com.example.demo.services.AppointmentIndex;
+import com.example.demo.services.AppointmentStore;
+import com.example.demo.services.BatchBooking;
+import com.example.demo.services.BulkDelete;
+import com.example.demo.services.RoomAvailability;
+import com.example.demo.services.RoomLocks;
+import com.example.demo.services.SlotLedger;
+import com.example.demo.services.TableExport;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @WebMvcTest(AppointmentController.class)
+@Import({AppointmentIndex.class, AppointmentStore.class, BatchBooking.class, RoomAvailability.class, RoomLocks.class, SlotLedger.class})
 class AppointmentControllerUnitTest{
 
     @MockBean
     private AppointmentRepository appointmentRepository;
 
+    @MockBean
+    private RoomRepository roomRepository;
+
+    @MockBean
+    private PatientRepository patientRepository;
+
+    @MockBean
+    private DoctorRepository doctorRepository;
+
+    @MockBean
+    private TableExport tableExport;
+
+    @MockBean
+    private BulkDelete bulkDelete;
+
     @Autowired 
     private MockMvc mockMvc;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private AppointmentIndex appointmentIndex;
+
+    @Autowired
+    private RoomAvailability roomAvailability;
+
+    @BeforeEach
+    void resetIndex(){
+        appointmentIndex.clear();
+        roomAvailability.clear();
+    }
+
     @Test
     void shouldCreateAppointment() throws Exception {
         
@@ -84,6 +129,25 @@ class AppointmentControllerUnitTest{
 
     }
 
+    @Test
+    void shouldCreateAppointmentByReference() throws Exception {
+        mockMvc.perform(post("/api/appointment/by-reference").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"patientId\":1,\"doctorId\":2,\"roomName\":\"Dermatology\","
+                        + "\"startsAt\":\"19:30 24/04/2023\",\"finishesAt\":\"20:30 24/04/2023\"}"))
+                .andExpect(status().isOk());
+
+        verify(appointmentRepository).persistByReference(any(Appointment.class));
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+    }
+
+    @Test
+    void shouldNotCreateAppointmentByReferenceWithoutARoom() throws Exception {
+        mockMvc.perform(post("/api/appointment/by-reference").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"patientId\":1,\"doctorId\":2,"
+                        + "\"startsAt\":\"19:30 24/04/2023\",\"finishesAt\":\"20:30 24/04/2023\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldCreateOneAppointmentOutOfTwoConflictDate() throws Exception{
         Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
@@ -112,6 +176,7 @@ class AppointmentControllerUnitTest{
         appointments.add(appointment);
         
         when(appointmentRepository.findAll()).thenReturn(appointments);
+        when(appointmentRepository.existsOverlapping("Dermatology", startsAt, finishesAt)).thenReturn(true);
         mockMvc.perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(appointment2)))
                 .andExpect(status().isNotAcceptable());
@@ -158,6 +223,102 @@ class AppointmentControllerUnitTest{
 
     }
     
+    @Test
+    void shouldNotCreateAppointmentOverlappingInDatabase() throws Exception {
+
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        Room room = new Room("Dermatology");
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+
+        LocalDateTime startsAt= LocalDateTime.parse("19:30 24/04/2023", formatter);
+        LocalDateTime finishesAt = LocalDateTime.parse("20:30 24/04/2023", formatter);
+
+        Appointment appointment = new Appointment(patient, doctor, room, startsAt, finishesAt);
+
+        when(appointmentRepository.existsOverlapping("Dermatology", startsAt, finishesAt)).thenReturn(true);
+        mockMvc.perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(appointment)))
+                .andExpect(status().isNotAcceptable());
+
+    }
+    
+    @Test
+    void shouldBookOverAppointmentDeletedByAnotherInstance() throws Exception {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+        LocalDateTime startsAt = LocalDateTime.parse("19:30 24/04/2023", formatter);
+        // Known here, but already gone from the database
+        AppointmentInterval deleted = new AppointmentInterval(7, "Dermatology", startsAt, startsAt.plusHours(1));
+        appointmentIndex.add(deleted);
+        roomAvailability.add(deleted);
+
+        Appointment appointment = new Appointment(new Patient(), new Doctor(), new Room("Dermatology"), startsAt, startsAt.plusHours(1));
+        mockMvc.perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(appointment)))
+                .andExpect(status().isOk());
+
+        verify(appointmentRepository).existsOverlapping("Dermatology", startsAt, startsAt.plusHours(1));
+        assertThat(appointmentIndex.intervals("Dermatology", startsAt, startsAt.plusHours(1)))
+                .extracting(AppointmentInterval::getId).doesNotContain(7L);
+    }
+
+    @Test
+    void shouldReportEachAppointmentOfABatch() throws Exception {
+        Room room = new Room("Dermatology");
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+        LocalDateTime startsAt = LocalDateTime.parse("19:30 24/04/2023", formatter);
+
+        List<Appointment> batch = Arrays.asList(
+                new Appointment(new Patient(), new Doctor(), room, startsAt.plusHours(1), startsAt.plusHours(2)),
+                new Appointment(new Patient(), new Doctor(), room, startsAt, startsAt.plusHours(1)),
+                new Appointment(new Patient(), new Doctor(), room, startsAt.plusMinutes(30), startsAt.plusMinutes(90)),
+                new Appointment(new Patient(), new Doctor(), room, startsAt.plusHours(3), startsAt.plusHours(2)),
+                new Appointment(new Patient(), new Doctor(), room, startsAt.plusHours(4), startsAt.plusHours(5)));
+
+        when(appointmentRepository.findIntervals("Dermatology", startsAt, startsAt.plusHours(5))).thenReturn(
+                Collections.singletonList(new AppointmentInterval(7, "Dermatology", startsAt.plusMinutes(270), startsAt.plusHours(6))));
+
+        mockMvc.perform(post("/api/appointments/batch").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].accepted").value(Matchers.contains(true, true, false, false, false)))
+                .andExpect(jsonPath("$[2].reason").value("overlaps an earlier appointment of the batch"))
+                .andExpect(jsonPath("$[3].reason").value("finishesAt must be after startsAt"))
+                .andExpect(jsonPath("$[4].reason").value("overlaps an existing appointment"));
+
+        verify(appointmentRepository).saveAll(Mockito.<List<Appointment>>argThat(saved -> saved.size() == 2));
+        assertThat(appointmentIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSaveNothingWhenAnAllOrNothingBatchHasAConflict() throws Exception {
+        Room room = new Room("Dermatology");
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+        LocalDateTime startsAt = LocalDateTime.parse("19:30 24/04/2023", formatter);
+
+        List<Appointment> batch = Arrays.asList(
+                new Appointment(new Patient(), new Doctor(), room, startsAt, startsAt.plusHours(1)),
+                new Appointment(new Patient(), new Doctor(), room, startsAt, startsAt.plusHours(1)));
+
+        mockMvc.perform(post("/api/appointments/batch").param("mode", "all-or-nothing")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isNotAcceptable())
+                .andExpect(jsonPath("$[0].accepted").value(false))
+                .andExpect(jsonPath("$[1].reason").value("overlaps an earlier appointment of the batch"));
+
+        verify(appointmentRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void shouldRejectUnknownBatchMode() throws Exception {
+        mockMvc.perform(post("/api/appointments/batch").param("mode", "sometimes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{}]"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldGetNoAppointments() throws Exception{
         List<Appointment> appointments = new ArrayList<Appointment>();
@@ -254,7 +415,7 @@ class AppointmentControllerUnitTest{
         assertThat(opt.get().getId()).isEqualTo(appointment.getId());
         assertThat(appointment.getId()).isEqualTo(1);
 
-        when(appointmentRepository.findById(appointment.getId())).thenReturn(opt);
+        when(bulkDelete.appointment(appointment.getId())).thenReturn(true);
         mockMvc.perform(delete("/api/appointments/" + appointment.getId()))
                 .andExpect(status().isOk());
                 
@@ -274,5 +435,176 @@ class AppointmentControllerUnitTest{
                 .andExpect(status().isOk());
                 
     }
-}
 
+    @Test
+    void shouldDeleteAppointmentsBefore() throws Exception{
+        when(bulkDelete.appointmentsBefore(LocalDateTime.of(2023, 4, 24, 9, 0))).thenReturn(3L);
+
+        mockMvc.perform(delete("/api/appointments").param("before", "09:00 24/04/2023"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Deleted-Count", "3"));
+        verify(bulkDelete, never()).allAppointments();
+    }
+
+    @Test
+    void shouldNotDeleteAppointmentsBeforeAMalformedTime() throws Exception{
+        mockMvc.perform(delete("/api/appointments").param("before", "2023-04-24"))
+                .andExpect(status().isBadRequest());
+        verify(bulkDelete, never()).allAppointments();
+    }
+
+    @Test
+    void shouldWalkAppointmentsWithTheNextCursor() throws Exception{
+        LocalDateTime startsAt = LocalDateTime.of(2023, 3, 24, 9, 30);
+        List<Appointment> firstPage = new ArrayList<>();
+        for (int i = 1; i <= 3; i++){
+            Appointment appointment = new Appointment(new Patient(), new Doctor(), new Room("Dermatology"),
+                    startsAt, startsAt.plusMinutes(30));
+            appointment.setId(i);
+            firstPage.add(appointment);
+        }
+        when(appointmentRepository.findFirstPage(any())).thenReturn(firstPage);
+
+        String cursor = mockMvc.perform(get("/api/appointments").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(header().exists("Link"))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        // The cursor carries the last row's start and id
+        when(appointmentRepository.findPageAfter(Mockito.eq(startsAt), Mockito.eq(2L), any()))
+                .thenReturn(firstPage.subList(2, 3));
+        mockMvc.perform(get("/api/appointments").param("after", cursor).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$[0].id", Matchers.is(3)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void shouldRejectMalformedAppointmentCursor() throws Exception{
+        mockMvc.perform(get("/api/appointments").param("after", "not a cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/appointments").param("after", "MTIz"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldFilterAppointmentsByRoomAndWindow() throws Exception{
+        LocalDateTime from = LocalDateTime.of(2023, 3, 25, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        Appointment appointment = new Appointment(new Patient(), new Doctor(), new Room("Dermatology"),
+                from.plusHours(9), from.plusHours(10));
+        when(appointmentRepository.findMatching("Dermatology", null, null, from, to, null, null, PageRequest.of(0, 101)))
+                .thenReturn(Collections.singletonList(appointment));
+
+        mockMvc.perform(get("/api/appointments").param("room", "Dermatology")
+                        .param("from", "00:00 25/03/2023").param("to", "00:00 26/03/2023"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$[0].room.roomName", Matchers.is("Dermatology")))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        when(appointmentRepository.findMatching(null, 7L, null, null, null, null, null, PageRequest.of(0, 101)))
+                .thenReturn(Collections.emptyList());
+        mockMvc.perform(get("/api/appointments").param("doctor", "7"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void shouldWalkFilteredAppointmentsWithTheNextCursor() throws Exception{
+        LocalDateTime startsAt = LocalDateTime.of(2023, 3, 24, 9, 30);
+        List<Appointment> firstPage = new ArrayList<>();
+        for (int i = 1; i <= 3; i++){
+            Appointment appointment = new Appointment(new Patient(), new Doctor(), new Room("Dermatology"),
+                    startsAt, startsAt.plusMinutes(30));
+            appointment.setId(i);
+            firstPage.add(appointment);
+        }
+        when(appointmentRepository.findMatching("Dermatology", null, null, null, null, null, null, PageRequest.of(0, 3)))
+                .thenReturn(firstPage);
+
+        String cursor = mockMvc.perform(get("/api/appointments?room=Dermatology&limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(header().string("Link", Matchers.containsString("room=Dermatology")))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        // The filter seeks from the cursor like the unfiltered listing
+        when(appointmentRepository.findMatching("Dermatology", null, null, null, null, startsAt, 2L, PageRequest.of(0, 3)))
+                .thenReturn(firstPage.subList(2, 3));
+        mockMvc.perform(get("/api/appointments").param("room", "Dermatology").param("after", cursor).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$[0].id", Matchers.is(3)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void shouldRejectInvalidAppointmentFilters() throws Exception{
+        mockMvc.perform(get("/api/appointments").param("room", "Dermatology").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/appointments").param("room", "Dermatology").param("after", "not a cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/appointments").param("from", "00:00 26/03/2023").param("to", "00:00 25/03/2023"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/appointments").param("view", "everything"))
+                .andExpect(status().isBadRequest());
+        verify(appointmentRepository, never()).findMatching(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldListCompactAppointmentsWithTheirPatientsOnce() throws Exception{
+        LocalDateTime startsAt = LocalDateTime.of(2023, 3, 25, 9, 0);
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        patient.setId(3);
+        when(appointmentRepository.findAllCompact()).thenReturn(Arrays.asList(
+                new CompactAppointment(1, startsAt, startsAt.plusHours(1), "Dermatology", 3L, 5L),
+                new CompactAppointment(2, startsAt.plusHours(1), startsAt.plusHours(2), "Dermatology", 3L, 5L)));
+        when(patientRepository.findAllById(Collections.singleton(3L))).thenReturn(Collections.singletonList(patient));
+
+        mockMvc.perform(get("/api/appointments").param("view", "compact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$[0].patientId", Matchers.is(3)))
+                .andExpect(jsonPath("$[0].startsAt", Matchers.is("09:00 25/03/2023")))
+                .andExpect(jsonPath("$[0].patient").doesNotExist());
+
+        mockMvc.perform(get("/api/appointments").param("view", "compact").param("include", "patients"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.appointments", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$.patients.3.email", Matchers.is("j.olaya@email.com")))
+                .andExpect(jsonPath("$.doctors").doesNotExist());
+        verify(doctorRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void shouldRejectUnknownCompactSideTables() throws Exception{
+        mockMvc.perform(get("/api/appointments").param("view", "compact").param("include", "patients,rooms"))
+                .andExpect(status().isBadRequest());
+        verify(appointmentRepository, never()).findAllCompact();
+    }
+
+    @Test
+    void shouldRejectFieldsOfOtherViewsAndUnknownFields() throws Exception{
+        mockMvc.perform(get("/api/appointments").param("view", "summary").param("fields", "id"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/appointments").param("fields", "id,patient.password"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/appointments/{id}", 1).param("fields", "room.floor"))
+                .andExpect(status().isBadRequest());
+        verify(appointmentRepository, never()).findAllSummaries();
+        verify(appointmentRepository, never()).findAllFields(any());
+        verify(appointmentRepository, never()).findFieldsById(any(), Mockito.anyLong());
+    }
+
+    @Test
+    void shouldRejectMultiGetOfOtherViews() throws Exception{
+        mockMvc.perform(get("/api/appointments").param("ids", "1,2").param("view", "compact"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/appointments").param("ids", "1,2").param("fields", "id"))
+                .andExpect(status().isBadRequest());
+        verify(appointmentRepository, never()).findAllById(any());
+        verify(appointmentRepository, never()).findAllCompact();
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.dto.AppointmentInterval;
+import com.example.demo.dto.FreeSlot;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.services.AppointmentIndex;
+
+class AppointmentIndexUnitTest {
+
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+
+    private AppointmentRepository appointmentRepository;
+    private AppointmentIndex index;
+
+    @BeforeEach
+    void setUp(){
+        appointmentRepository = mock(AppointmentRepository.class);
+        index = new AppointmentIndex(appointmentRepository);
+    }
+
+    @Test
+    void shouldRebuildFromRepository(){
+        when(appointmentRepository.findAllIntervals()).thenReturn(Arrays.asList(
+                new AppointmentInterval(1, "Dermatology", at("09:00 24/04/2023"), at("10:00 24/04/2023")),
+                new AppointmentInterval(2, "Dermatology", at("10:00 24/04/2023"), at("11:00 24/04/2023")),
+                new AppointmentInterval(3, "Oncology", at("09:00 24/04/2023"), at("12:00 24/04/2023"))));
+
+        index.rebuild();
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.getRebuildMillis()).isGreaterThanOrEqualTo(0);
+        assertThat(overlaps("Dermatology", "09:30 24/04/2023", "09:45 24/04/2023")).isTrue();
+        assertThat(overlaps("Dermatology", "11:00 24/04/2023", "12:00 24/04/2023")).isFalse();
+    }
+
+    @Test
+    void shouldSortUnorderedIntervalsOnRebuild(){
+        List<AppointmentInterval> intervals = new ArrayList<>();
+        for (int i = 0; i < 1000; i++){
+            LocalDateTime startsAt = at("08:00 24/04/2023").plusMinutes(15L * i);
+            intervals.add(new AppointmentInterval(i + 1, i % 2 == 0 ? "Dermatology" : "Oncology", startsAt, startsAt.plusMinutes(15)));
+        }
+        Collections.shuffle(intervals, new Random(42));
+        when(appointmentRepository.findAllIntervals()).thenReturn(intervals);
+
+        index.rebuild();
+        index.add(new AppointmentInterval(1001, "Dermatology", at("07:30 24/04/2023"), at("07:45 24/04/2023")));
+
+        List<AppointmentInterval> morning = index.intervals("Dermatology", at("07:00 24/04/2023"), at("10:00 24/04/2023"));
+        assertThat(morning).extracting(AppointmentInterval::getId).containsExactly(1001L, 1L, 3L, 5L, 7L);
+        assertThat(overlaps("Oncology", "08:00 24/04/2023", "08:15 24/04/2023")).isFalse();
+        assertThat(overlaps("Oncology", "08:10 24/04/2023", "08:20 24/04/2023")).isTrue();
+    }
+
+    @Test
+    void shouldDetectOverlapsOnlyInTheSameRoom(){
+        index.add(new AppointmentInterval(1, "Dermatology", at("19:30 24/04/2023"), at("20:30 24/04/2023")));
+
+        assertThat(overlaps("Dermatology", "19:30 24/04/2023", "20:30 24/04/2023")).isTrue();
+        assertThat(overlaps("Dermatology", "19:00 24/04/2023", "19:45 24/04/2023")).isTrue();
+        assertThat(overlaps("Dermatology", "20:00 24/04/2023", "21:00 24/04/2023")).isTrue();
+        assertThat(overlaps("Oncology", "19:30 24/04/2023", "20:30 24/04/2023")).isFalse();
+    }
+
+    @Test
+    void shouldDetectAppointmentsContainingAnExistingOne(){
+        index.add(new AppointmentInterval(1, "Dermatology", at("19:30 24/04/2023"), at("19:45 24/04/2023")));
+
+        assertThat(overlaps("Dermatology", "19:00 24/04/2023", "21:00 24/04/2023")).isTrue();
+    }
+
+    @Test
+    void shouldAllowBackToBackAppointments(){
+        index.add(new AppointmentInterval(1, "Dermatology", at("19:30 24/04/2023"), at("20:30 24/04/2023")));
+
+        assertThat(overlaps("Dermatology", "18:30 24/04/2023", "19:30 24/04/2023")).isFalse();
+        assertThat(overlaps("Dermatology", "20:30 24/04/2023", "21:30 24/04/2023")).isFalse();
+    }
+
+    @Test
+    void shouldFindLongAppointmentsStartingWellBefore(){
+        index.add(new AppointmentInterval(1, "Dermatology", at("08:00 24/04/2023"), at("20:00 24/04/2023")));
+        index.add(new AppointmentInterval(2, "Dermatology", at("21:00 24/04/2023"), at("21:15 24/04/2023")));
+
+        assertThat(overlaps("Dermatology", "19:00 24/04/2023", "19:10 24/04/2023")).isTrue();
+    }
+
+    @Test
+    void shouldForgetRemovedAppointments(){
+        index.add(new AppointmentInterval(1, "Dermatology", at("19:30 24/04/2023"), at("20:30 24/04/2023")));
+        index.add(new AppointmentInterval(2, "Oncology", at("19:30 24/04/2023"), at("20:30 24/04/2023")));
+
+        index.remove(1);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(overlaps("Dermatology", "19:30 24/04/2023", "20:30 24/04/2023")).isFalse();
+
+        index.clear();
+
+        assertThat(index.size()).isZero();
+        assertThat(overlaps("Oncology", "19:30 24/04/2023", "20:30 24/04/2023")).isFalse();
+    }
+
+    @Test
+    void shouldCompareWholeMinutes(){
+        index.add(new AppointmentInterval(1, "Dermatology", at("19:30 24/04/2023"), at("20:30 24/04/2023")));
+
+        assertThat(overlaps("Dermatology", "20:29 24/04/2023", "21:00 24/04/2023")).isTrue();
+        assertThat(overlaps("Dermatology", "20:30 24/04/2023", "21:00 24/04/2023")).isFalse();
+        // Seconds are rounded outwards, so a part-minute still counts
+        assertThat(index.intervals("Dermatology", at("20:30 24/04/2023").minusSeconds(1), at("21:00 24/04/2023"))).hasSize(1);
+
+        index.clear();
+
+        assertThat(overlaps("Dermatology", "19:30 24/04/2023", "20:30 24/04/2023")).isFalse();
+    }
+
+    @Test
+    void shouldFindEarliestGapsAcrossRooms(){
+        index.add(new AppointmentInterval(1, "Dermatology", at("08:00 24/04/2023"), at("09:00 24/04/2023")));
+        index.add(new AppointmentInterval(2, "Dermatology", at("09:20 24/04/2023"), at("10:00 24/04/2023")));
+        index.add(new AppointmentInterval(3, "Dermatology", at("10:30 24/04/2023"), at("12:00 24/04/2023")));
+        index.add(new AppointmentInterval(4, "Oncology", at("07:00 24/04/2023"), at("11:00 24/04/2023")));
+
+        List<FreeSlot> slots = index.freeSlots(Arrays.asList("Dermatology", "Oncology", "Radiology"),
+                at("08:00 24/04/2023"), at("13:00 24/04/2023"), Duration.ofMinutes(30), 3);
+
+        assertThat(slots).extracting(FreeSlot::getRoomName).containsExactly("Radiology", "Dermatology", "Oncology");
+        assertThat(slots.get(0).getStartsAt()).isEqualTo(at("08:00 24/04/2023"));
+        assertThat(slots.get(1).getStartsAt()).isEqualTo(at("10:00 24/04/2023"));
+        assertThat(slots.get(1).getFinishesAt()).isEqualTo(at("10:30 24/04/2023"));
+        assertThat(slots.get(2).getStartsAt()).isEqualTo(at("11:00 24/04/2023"));
+        assertThat(slots.get(2).getFinishesAt()).isEqualTo(at("13:00 24/04/2023"));
+    }
+
+    @Test
+    void shouldSkipGapsShorterThanTheDuration(){
+        index.add(new AppointmentInterval(1, "Dermatology", at("07:30 24/04/2023"), at("08:10 24/04/2023")));
+        index.add(new AppointmentInterval(2, "Dermatology", at("08:30 24/04/2023"), at("12:00 24/04/2023")));
+
+        List<FreeSlot> slots = index.freeSlots(Arrays.asList("Dermatology"),
+                at("08:00 24/04/2023"), at("12:45 24/04/2023"), Duration.ofMinutes(45), 10);
+
+        assertThat(slots).hasSize(1);
+        assertThat(slots.get(0).getStartsAt()).isEqualTo(at("12:00 24/04/2023"));
+        assertThat(slots.get(0).getFinishesAt()).isEqualTo(at("12:45 24/04/2023"));
+    }
+
+    @Test
+    void shouldSearchAMonthOfHundredsOfRoomsQuickly(){
+        List<String> roomNames = new ArrayList<>();
+        long id = 0;
+        for (int room = 0; room < 300; room++){
+            roomNames.add("Room-" + room);
+            for (int day = 0; day < 30; day++){
+                // Fully booked from 08:00 to 20:00 in 30 minute appointments
+                LocalDateTime opening = LocalDateTime.of(2023, 4, 1, 8, 0).plusDays(day);
+                for (int slot = 0; slot < 24; slot++){
+                    index.add(new AppointmentInterval(++id, "Room-" + room,
+                            opening.plusMinutes(slot * 30L), opening.plusMinutes(slot * 30L + 30)));
+                }
+            }
+        }
+
+        List<FreeSlot> slots = index.freeSlots(roomNames, at("08:00 01/04/2023"), at("20:00 30/04/2023"), Duration.ofMinutes(30), 10);
+
+        assertThat(slots).hasSize(10);
+        assertThat(slots).allSatisfy(slot -> assertThat(slot.getStartsAt()).isEqualTo(at("20:00 01/04/2023")));
+    }
+
+    private LocalDateTime at(String text){
+        return LocalDateTime.parse(text, formatter);
+    }
+
+    private boolean overlaps(String roomName, String startsAt, String finishesAt){
+        return !index.intervals(roomName, at(startsAt), at(finishesAt)).isEmpty();
+    }
+}
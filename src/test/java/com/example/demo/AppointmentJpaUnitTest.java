@@ -1,22 +1,26 @@
 package com.example.demo;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 
 import com.example.demo.repositories.*;
 import com.example.demo.entities.*;
+import com.example.demo.dto.AppointmentInterval;
 
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.CapturedStatements")
 @AutoConfigureTestDatabase(replace=Replace.NONE)
 class AppointmentJpaUnitTest {
 
@@ -35,6 +39,9 @@ class AppointmentJpaUnitTest {
     @Autowired
     RoomRepository repoRooms;
 
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
     @Test
     void should_find_no_appointments_if_repository_is_empty(){
         Iterable<Appointment> appointments = repoAppointments.findAll();
@@ -258,4 +265,186 @@ class AppointmentJpaUnitTest {
         assertThat(appointments).isEmpty();
     }
     
+    @Test
+    void should_find_appointment_intervals(){
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        Room room = new Room("Dermatology");
+
+        LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 19, 30);
+        LocalDateTime finishesAt = startsAt.plusHours(1);
+
+        entityManager.persist(patient);
+        entityManager.persist(doctor);
+        entityManager.persist(room);
+
+        Appointment appointment = new Appointment(patient, doctor, room, startsAt, finishesAt);
+        entityManager.persist(appointment);
+
+        List<AppointmentInterval> intervals = repoAppointments.findAllIntervals();
+
+        assertThat(intervals).hasSize(1);
+        assertThat(intervals.get(0).getId()).isEqualTo(appointment.getId());
+        assertThat(intervals.get(0).getRoomName()).isEqualTo("Dermatology");
+        assertThat(intervals.get(0).getStartsAt()).isEqualTo(startsAt);
+        assertThat(intervals.get(0).getFinishesAt()).isEqualTo(finishesAt);
+    }
+    
+    @Test
+    void should_find_overlapping_appointments_in_the_same_room(){
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        Room room1 = new Room("Dermatology");
+        Room room2 = new Room("Oncology");
+
+        LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 19, 30);
+        LocalDateTime finishesAt = startsAt.plusHours(1);
+
+        entityManager.persist(patient);
+        entityManager.persist(doctor);
+        entityManager.persist(room1);
+        entityManager.persist(room2);
+        entityManager.persist(new Appointment(patient, doctor, room1, startsAt, finishesAt));
+
+        assertThat(repoAppointments.existsOverlapping("Dermatology", startsAt, finishesAt)).isTrue();
+        assertThat(repoAppointments.existsOverlapping("Dermatology", startsAt.minusMinutes(30), startsAt.plusMinutes(1))).isTrue();
+        assertThat(repoAppointments.existsOverlapping("Dermatology", startsAt.minusHours(1), finishesAt.plusHours(1))).isTrue();
+        assertThat(repoAppointments.existsOverlapping("Dermatology", finishesAt, finishesAt.plusHours(1))).isFalse();
+        assertThat(repoAppointments.existsOverlapping("Oncology", startsAt, finishesAt)).isFalse();
+    }
+
+    @Test
+    void should_use_room_schedule_index_for_overlap_query(){
+        LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 19, 30);
+        CapturedStatements.clear();
+        repoAppointments.existsOverlapping("Dermatology", startsAt, startsAt.plusHours(1));
+
+        // room_id = ? and starts_at < ? and finishes_at > ? limit ?
+        String plan = explain(CapturedStatements.last(), "Dermatology", startsAt.plusHours(1), startsAt, 1);
+
+        assertThat(plan).containsIgnoringCase("idx_appointment_room_schedule");
+    }
+
+    /**
+     * The plan of a statement as Hibernate prepared it, with its parameters
+     * bound in order.
+     */
+    private String explain(String sql, Object... parameters){
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+    }
+
+    @Test
+    void should_walk_appointments_in_keyset_pages(){
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        Room room = new Room("Dermatology");
+        entityManager.persist(patient);
+        entityManager.persist(doctor);
+        entityManager.persist(room);
+
+        // Two appointments share a start, so the id breaks the tie
+        LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 9, 0);
+        Appointment first = entityManager.persist(new Appointment(patient, doctor, room, startsAt, startsAt.plusMinutes(30)));
+        Appointment second = entityManager.persist(new Appointment(patient, doctor, room, startsAt, startsAt.plusMinutes(30)));
+        Appointment third = entityManager.persist(new Appointment(patient, doctor, room, startsAt.plusHours(1), startsAt.plusHours(2)));
+        Appointment earliest = entityManager.persist(new Appointment(patient, doctor, room, startsAt.minusHours(1), startsAt));
+
+        List<Appointment> page = repoAppointments.findFirstPage(PageRequest.of(0, 2));
+        assertThat(page).containsExactly(earliest, first);
+
+        page = repoAppointments.findPageAfter(first.getStartsAt(), first.getId(), PageRequest.of(0, 2));
+        assertThat(page).containsExactly(second, third);
+
+        page = repoAppointments.findPageAfter(third.getStartsAt(), third.getId(), PageRequest.of(0, 2));
+        assertThat(page).isEmpty();
+    }
+
+    @Test
+    void should_use_start_index_for_keyset_pages(){
+        LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 19, 30);
+        CapturedStatements.clear();
+        repoAppointments.findPageAfter(startsAt, 10, PageRequest.of(0, 10));
+
+        // starts_at > ? or starts_at = ? and id > ? order by starts_at, id limit ?
+        String plan = explain(CapturedStatements.last(), startsAt, startsAt, 10L, 10);
+
+        assertThat(plan).containsIgnoringCase("idx_appointment_starts_at");
+    }
+
+    @Test
+    void should_find_appointments_by_resource_and_window(){
+        Patient patient1 = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Patient patient2 = new Patient("Paulino", "Antunez", 37, "p.antunez@email.com");
+        Doctor doctor1 = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        Doctor doctor2 = new Doctor ("Miren", "Iniesta", 24, "m.iniesta@hospital.accwe");
+        Room room1 = new Room("Dermatology");
+        Room room2 = new Room("Oncology");
+        entityManager.persist(patient1);
+        entityManager.persist(patient2);
+        entityManager.persist(doctor1);
+        entityManager.persist(doctor2);
+        entityManager.persist(room1);
+        entityManager.persist(room2);
+
+        LocalDateTime today = LocalDateTime.of(2023, 4, 24, 9, 0);
+        LocalDateTime tomorrow = today.plusDays(1);
+        Appointment a1 = entityManager.persist(new Appointment(patient1, doctor1, room1, today, today.plusHours(1)));
+        Appointment a2 = entityManager.persist(new Appointment(patient2, doctor1, room1, tomorrow.plusHours(2), tomorrow.plusHours(3)));
+        Appointment a3 = entityManager.persist(new Appointment(patient1, doctor2, room2, tomorrow, tomorrow.plusHours(1)));
+        Appointment a4 = entityManager.persist(new Appointment(patient2, doctor1, room2, tomorrow.plusDays(1), tomorrow.plusDays(1).plusHours(1)));
+
+        LocalDateTime dayStart = tomorrow.toLocalDate().atStartOfDay();
+        assertThat(repoAppointments.findMatching("Dermatology", null, null, dayStart, dayStart.plusDays(1)))
+            .containsExactly(a2);
+        assertThat(repoAppointments.findMatching(null, doctor1.getId(), null, today.toLocalDate().atStartOfDay(), dayStart.plusDays(7)))
+            .containsExactly(a1, a2, a4);
+        assertThat(repoAppointments.findMatching(null, null, patient1.getId(), null, null))
+            .containsExactly(a1, a3);
+        assertThat(repoAppointments.findMatching("Oncology", doctor1.getId(), patient2.getId(), dayStart, null))
+            .containsExactly(a4);
+    }
+
+    @Test
+    void should_walk_filtered_appointments_in_keyset_pages(){
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        Room room1 = new Room("Dermatology");
+        Room room2 = new Room("Oncology");
+        entityManager.persist(patient);
+        entityManager.persist(doctor);
+        entityManager.persist(room1);
+        entityManager.persist(room2);
+
+        LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 9, 0);
+        Appointment a1 = entityManager.persist(new Appointment(patient, doctor, room1, startsAt, startsAt.plusHours(1)));
+        entityManager.persist(new Appointment(patient, doctor, room2, startsAt, startsAt.plusHours(1)));
+        Appointment a3 = entityManager.persist(new Appointment(patient, doctor, room1, startsAt.plusHours(1), startsAt.plusHours(2)));
+        Appointment a4 = entityManager.persist(new Appointment(patient, doctor, room1, startsAt.plusHours(2), startsAt.plusHours(3)));
+
+        List<Appointment> page = repoAppointments.findMatching("Dermatology", null, null, null, null, null, null, PageRequest.of(0, 2));
+        assertThat(page).containsExactly(a1, a3);
+        page = repoAppointments.findMatching("Dermatology", null, null, null, null, a3.getStartsAt(), a3.getId(), PageRequest.of(0, 2));
+        assertThat(page).containsExactly(a4);
+        assertThat(repoAppointments.findSummaries(null, doctor.getId(), null, startsAt, null, a1.getStartsAt(), a1.getId(), PageRequest.of(0, 10)))
+            .hasSize(3);
+    }
+
+    @Test
+    void should_use_doctor_and_patient_indexes_for_window_queries(){
+        LocalDateTime from = LocalDateTime.of(2023, 4, 24, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        LocalDateTime after = from.plusHours(9);
+
+        // doctor_id = ? and starts_at >= ? and starts_at < ? and (starts_at > ? or starts_at = ? and id > ?) limit ?
+        CapturedStatements.clear();
+        repoAppointments.findMatching(null, 1L, null, from, to, after, 10L, PageRequest.of(0, 10));
+        String doctorPlan = explain(CapturedStatements.last(), 1L, from, to, after, after, 10L, 10);
+        CapturedStatements.clear();
+        repoAppointments.findCompact(null, null, 1L, from, to, after, 10L, PageRequest.of(0, 10));
+        String patientPlan = explain(CapturedStatements.last(), 1L, from, to, after, after, 10L, 10);
+
+        assertThat(doctorPlan).containsIgnoringCase("idx_appointment_doctor_schedule");
+        assertThat(patientPlan).containsIgnoringCase("idx_appointment_patient_schedule");
+    }
+
 }
@@ -0,0 +1,156 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.controllers.AppointmentController;
+import com.example.demo.entities.*;
+
+/**
+ * Counts the SQL statements of each appointment read with Hibernate
+ * statistics. Every appointment has a patient, doctor and room of its own, the
+ * worst case for lazy or per-row loading, yet the count must not grow with the
+ * number of rows.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class AppointmentReadStatementsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppointmentController appointmentController;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private int booked;
+
+    private final LocalDateTime base = LocalDateTime.of(2023, 4, 24, 8, 0);
+
+    @BeforeEach
+    void setUp(){
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp(){
+        appointmentController.deleteAllAppointments();
+    }
+
+    @Test
+    void shouldListAppointmentsInOneStatement() throws Exception {
+        book(5);
+        long few = statements("/api/appointments", 5);
+        book(45);
+        long many = statements("/api/appointments", 50);
+
+        assertThat(few).isEqualTo(1);
+        assertThat(many).isEqualTo(few);
+    }
+
+    @Test
+    void shouldReadPagesFiltersAndSummariesInOneStatement() throws Exception {
+        book(40);
+
+        assertThat(statements("/api/appointments?limit=30", 30)).isEqualTo(1);
+        assertThat(statements("/api/appointments?from=00:00 24/04/2023", 40)).isEqualTo(1);
+        assertThat(statements("/api/appointments?view=summary", 40)).isEqualTo(1);
+        assertThat(statements("/api/appointments?view=summary&limit=10", 10)).isEqualTo(1);
+        assertThat(statements("/api/appointments?view=summary&doctor=-1", -1)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReadCompactAppointmentsInOneStatementPlusOnePerSideTable() throws Exception {
+        book(40);
+
+        assertThat(statements("/api/appointments?view=compact", 40)).isEqualTo(1);
+        assertThat(statements("/api/appointments?view=compact&limit=10", 10)).isEqualTo(1);
+        assertThat(statements("/api/appointments?view=compact&room=Room-3", 1)).isEqualTo(1);
+
+        statistics.clear();
+        mockMvc.perform(get("/api/appointments").param("view", "compact").param("include", "patients,doctors"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.appointments", Matchers.hasSize(40)))
+                .andExpect(jsonPath("$.patients.length()", Matchers.is(40)))
+                .andExpect(jsonPath("$.doctors.length()", Matchers.is(40)));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldReadOneAppointmentInOneStatement() throws Exception {
+        List<Appointment> booked = book(3);
+
+        statistics.clear();
+        mockMvc.perform(get("/api/appointments/{id}", booked.get(1).getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.doctor.firstName", Matchers.is("Doctor-1")));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSummarizeAppointmentsWithNames() throws Exception {
+        book(2);
+
+        mockMvc.perform(get("/api/appointments").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$[0].startsAt", Matchers.is("08:00 24/04/2023")))
+                .andExpect(jsonPath("$[0].roomName", Matchers.is("Room-0")))
+                .andExpect(jsonPath("$[0].patient.lastName", Matchers.is("Patient-0")))
+                .andExpect(jsonPath("$[0].patient.email").doesNotExist())
+                .andExpect(jsonPath("$[1].doctor.firstName", Matchers.is("Doctor-1")));
+    }
+
+    /**
+     * Books count more appointments, each with a new patient, doctor and room.
+     */
+    private List<Appointment> book(int count){
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = booked; i < booked + count; i++){
+            Patient patient = new Patient("Jose Luis", "Patient-" + i, 37, "patient" + i + "@email.com");
+            Doctor doctor = new Doctor("Doctor-" + i, "Amalia", 24, "doctor" + i + "@hospital.accwe");
+            LocalDateTime startsAt = base.plusMinutes(i * 30L);
+            appointments.add(new Appointment(patient, doctor, new Room("Room-" + i), startsAt, startsAt.plusMinutes(30)));
+        }
+        appointmentController.createAppointments(appointments, "all-or-nothing");
+        booked += count;
+        return appointments;
+    }
+
+    /**
+     * The statements run by one GET, which must return rows rows (none if
+     * negative).
+     */
+    private long statements(String url, int rows) throws Exception {
+        statistics.clear();
+        if (rows < 0){
+            mockMvc.perform(get(url)).andExpect(status().isNoContent());
+        } else {
+            mockMvc.perform(get(url)).andExpect(status().isOk()).andExpect(jsonPath("$", Matchers.hasSize(rows)));
+        }
+        return statistics.getPrepareStatementCount();
+    }
+}
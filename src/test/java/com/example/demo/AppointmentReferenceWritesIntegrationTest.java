@@ -0,0 +1,134 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.example.demo.controllers.AppointmentController;
+import com.example.demo.dto.AppointmentReference;
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+import com.example.demo.services.AppointmentIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Counts the SQL statements of a booking by reference with Hibernate
+ * statistics: the overlap check and the insert, with no select or update of
+ * the patient, doctor or room.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AppointmentReferenceWritesIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AppointmentController appointmentController;
+
+    @Autowired
+    private AppointmentIndex appointmentIndex;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 8, 0);
+
+    private Statistics statistics;
+    private Patient patient;
+    private Doctor doctor;
+
+    @BeforeEach
+    void setUp(){
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        patient = patientRepository.save(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"));
+        doctor = doctorRepository.save(new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"));
+        roomRepository.save(new Room("Dermatology"));
+    }
+
+    @AfterEach
+    void cleanUp(){
+        appointmentController.deleteAllAppointments();
+        jdbcTemplate.update("delete from patient");
+        jdbcTemplate.update("delete from doctors");
+        jdbcTemplate.update("delete from room");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void shouldBookByReferenceWithoutTouchingTheParties() throws Exception {
+        // The first insert may fetch a block of ids
+        book(reference(patient.getId(), "Dermatology", startsAt), status().isOk());
+        statistics.clear();
+
+        book(reference(patient.getId(), "Dermatology", startsAt.plusHours(1)), status().isOk());
+
+        // The overlap check and the insert
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+        assertThat(appointmentIndex.intervals("Dermatology", startsAt, startsAt.plusHours(2))).hasSize(2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from appointment where patient_id = ? and doctor_id = ?",
+                Integer.class, patient.getId(), doctor.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRejectOverlapsAndUnknownReferences() throws Exception {
+        book(reference(patient.getId(), "Dermatology", startsAt), status().isOk());
+
+        book(reference(patient.getId(), "Dermatology", startsAt.plusMinutes(30)), status().isNotAcceptable());
+        book(reference(-1, "Dermatology", startsAt.plusHours(2)), status().isBadRequest());
+        book(reference(patient.getId(), "Oncology", startsAt.plusHours(2)), status().isBadRequest());
+        book(new AppointmentReference(), status().isBadRequest());
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from appointment", Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from room", Integer.class)).isEqualTo(1);
+        // The rejected bookings left no trace in the index either
+        assertThat(appointmentIndex.intervals("Dermatology", startsAt, startsAt.plusHours(3))).hasSize(1);
+    }
+
+    private AppointmentReference reference(long patientId, String roomName, LocalDateTime startsAt){
+        return new AppointmentReference(patientId, doctor.getId(), roomName, startsAt, startsAt.plusMinutes(45));
+    }
+
+    private void book(AppointmentReference reference, ResultMatcher expected) throws Exception {
+        mockMvc.perform(post("/api/appointment/by-reference")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reference)))
+                .andExpect(expected);
+    }
+}
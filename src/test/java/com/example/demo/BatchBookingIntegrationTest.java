@@ -0,0 +1,93 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.controllers.AppointmentController;
+import com.example.demo.dto.BookingResult;
+import com.example.demo.entities.*;
+import com.example.demo.services.AppointmentIndex;
+
+@SpringBootTest
+class BatchBookingIntegrationTest {
+
+    private static final int ROOMS = 4;
+    private static final int PER_ROOM = 250;
+
+    @Autowired
+    private AppointmentController appointmentController;
+
+    @Autowired
+    private AppointmentIndex appointmentIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime base = LocalDateTime.of(2023, 4, 24, 8, 0);
+
+    @AfterEach
+    void cleanUp(){
+        appointmentController.deleteAllAppointments();
+    }
+
+    @Test
+    void shouldImportAScheduleInOneRequest(){
+        List<Appointment> schedule = new ArrayList<>();
+        for (int slot = PER_ROOM - 1; slot >= 0; slot--){
+            for (int room = 0; room < ROOMS; room++){
+                LocalDateTime startsAt = base.plusMinutes(slot * 30L);
+                schedule.add(appointment("Room-" + room, startsAt, startsAt.plusMinutes(30)));
+            }
+        }
+
+        ResponseEntity<List<BookingResult>> response = appointmentController.createAppointments(schedule, "all-or-nothing");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(ROOMS * PER_ROOM).allMatch(BookingResult::isAccepted);
+        assertThat(count("appointment")).isEqualTo(ROOMS * PER_ROOM);
+        assertThat(count("room")).isEqualTo(ROOMS);
+        assertThat(appointmentIndex.size()).isEqualTo(ROOMS * PER_ROOM);
+    }
+
+    @Test
+    void shouldCheckBatchesAgainstStoredAppointments(){
+        appointmentController.createAppointment(appointment("Dermatology", base, base.plusHours(1)));
+
+        List<Appointment> batch = Arrays.asList(
+                appointment("Dermatology", base.plusMinutes(30), base.plusMinutes(90)),
+                appointment("Dermatology", base.plusHours(1), base.plusHours(2)),
+                appointment("Oncology", base, base.plusHours(1)));
+
+        ResponseEntity<List<BookingResult>> atomic = appointmentController.createAppointments(batch, "all-or-nothing");
+        assertThat(atomic.getStatusCode()).isEqualTo(HttpStatus.NOT_ACCEPTABLE);
+        assertThat(count("appointment")).isEqualTo(1);
+
+        ResponseEntity<List<BookingResult>> bestEffort = appointmentController.createAppointments(batch, "best-effort");
+        assertThat(bestEffort.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(bestEffort.getBody()).extracting(BookingResult::isAccepted).containsExactly(false, true, true);
+        assertThat(count("appointment")).isEqualTo(3);
+        assertThat(count("room")).isEqualTo(2);
+    }
+
+    private Appointment appointment(String roomName, LocalDateTime startsAt, LocalDateTime finishesAt){
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        return new Appointment(patient, doctor, new Room(roomName), startsAt, finishesAt);
+    }
+
+    private int count(String table){
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.controllers.PatientController;
+import com.example.demo.entities.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BatchInsertIntegrationTest {
+
+    private static final int PATIENTS = 20000;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PatientController patientController;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp(){
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp(){
+        jdbcTemplate.update("delete from patient");
+        jdbcTemplate.update("delete from doctors");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void shouldInsertPatientsInJdbcBatches(){
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++){
+            patients.add(new Patient("Jose Luis", "Olaya", 37, "j.olaya" + i + "@email.com"));
+        }
+        statistics.clear();
+
+        ResponseEntity<List<Patient>> response = patientController.createPatients(patients);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody()).extracting(Patient::getId).doesNotHaveDuplicates().allMatch(id -> id > 0);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from patient", Integer.class)).isEqualTo(PATIENTS);
+        // One trip to the sequence and one insert batch per 50 rows
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2L * PATIENTS / BATCH_SIZE + 2);
+        assertThat(statistics.getSecondLevelCachePutCount()).isZero();
+    }
+
+    @Test
+    void shouldCreateDoctorsFromAnArray() throws Exception {
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 0; i < 120; i++){
+            doctors.add(new Doctor("Perla", "Amalia", 24, "p.amalia" + i + "@hospital.accwe"));
+        }
+
+        mockMvc.perform(post("/api/doctors/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(doctors)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", Matchers.hasSize(120)))
+                .andExpect(jsonPath("$[119].email", Matchers.is("p.amalia119@hospital.accwe")));
+        assertThat(jdbcTemplate.queryForObject("select count(distinct id) from doctors", Integer.class)).isEqualTo(120);
+    }
+
+    @Test
+    void shouldRejectAnEmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/patients/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+}
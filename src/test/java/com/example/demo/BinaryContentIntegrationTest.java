@@ -0,0 +1,146 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import com.example.demo.controllers.AppointmentController;
+import com.example.demo.entities.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryContentIntegrationTest {
+
+    private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder builder;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @Autowired
+    private AppointmentController appointmentController;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 8, 0);
+
+    @BeforeEach
+    void setUp(){
+        for (int i = 0; i < 10; i++){
+            Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+            Doctor doctor = new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+            LocalDateTime at = startsAt.plusMinutes(30L * i);
+            appointmentController.createAppointment(new Appointment(patient, doctor, new Room("Dermatology"), at, at.plusMinutes(30)));
+        }
+    }
+
+    @AfterEach
+    void cleanUp(){
+        appointmentController.deleteAllAppointments();
+        jdbcTemplate.update("delete from patient");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void shouldListAppointmentsInCborAndSmileWithTheJsonDates() throws Exception {
+        byte[] json = fetch("/api/appointments", MediaType.APPLICATION_JSON);
+        JsonNode expected = objectMapper.readTree(json);
+        assertThat(expected.get(0).get("startsAt").asText()).isEqualTo("08:00 24/04/2023");
+
+        byte[] cbor = fetch("/api/appointments", CBOR);
+        byte[] smile = fetch("/api/appointments", SMILE);
+
+        assertThat(new ObjectMapper(new CBORFactory()).readTree(cbor)).isEqualTo(expected);
+        assertThat(new ObjectMapper(new SmileFactory()).readTree(smile)).isEqualTo(expected);
+        assertThat(cbor.length).isLessThan(json.length);
+        // Smile refers back to repeated names and short strings
+        assertThat(smile.length).isLessThan(cbor.length);
+    }
+
+    @Test
+    void shouldConvertWithTheJacksonConfigurationAfterJson() throws Exception {
+        List<HttpMessageConverter<?>> converters = handlerAdapter.getMessageConverters();
+        int json = converters.indexOf(converters.stream()
+                .filter(MappingJackson2HttpMessageConverter.class::isInstance).findFirst().get());
+
+        assertThat(converters.indexOf(cborConverter)).isGreaterThan(json);
+        assertThat(converters.indexOf(smileConverter)).isGreaterThan(json);
+        // Spring MVC's own would write a bare date-time as an array of numbers
+        byte[] cbor = cborConverter.getObjectMapper().writeValueAsBytes(startsAt);
+        byte[] smile = smileConverter.getObjectMapper().writeValueAsBytes(startsAt);
+        assertThat(new ObjectMapper(new CBORFactory()).readValue(cbor, String.class)).isEqualTo("08:00 24/04/2023");
+        assertThat(new ObjectMapper(new SmileFactory()).readValue(smile, String.class)).isEqualTo("08:00 24/04/2023");
+    }
+
+    @Test
+    void shouldKeepJsonForAnyContentType() throws Exception {
+        mockMvc.perform(get("/api/appointments").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void shouldReadSmileRequestBodies() throws Exception {
+        ObjectMapper smileMapper = builder.factory(new SmileFactory()).build();
+        byte[] body = smileMapper.writeValueAsBytes(new Patient("Andrea", "Gil", 52, "a.gil@email.com"));
+
+        byte[] created = mockMvc.perform(post("/api/patient").contentType(SMILE).content(body).accept(SMILE))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(smileMapper.readValue(created, Patient.class).getEmail()).isEqualTo("a.gil@email.com");
+    }
+
+    private byte[] fetch(String path, MediaType mediaType) throws Exception {
+        return mockMvc.perform(get(path).accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(mediaType))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.controllers.AppointmentController;
+import com.example.demo.controllers.PatientController;
+import com.example.demo.entities.*;
+import com.example.demo.repositories.DoctorRepository;
+import com.example.demo.services.AppointmentIndex;
+
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "bulk-delete.chunk-size=7",
+    "appointments.slot-ledger.enabled=true",
+    "appointments.slot-ledger.granularity-minutes=15"
+})
+class BulkDeleteIntegrationTest {
+
+    @Autowired
+    private AppointmentController appointmentController;
+
+    @Autowired
+    private PatientController patientController;
+
+    @Autowired
+    private AppointmentIndex appointmentIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 8, 0);
+
+    @AfterEach
+    void cleanUp(){
+        appointmentController.deleteAllAppointments();
+        patientController.deleteAllPatients();
+    }
+
+    @Test
+    void shouldDeleteAppointmentsBeforeInChunks(){
+        // 20 consecutive half hour appointments, three chunks of 7
+        for (int i = 0; i < 20; i++){
+            assertThat(book(startsAt.plusMinutes(30L * i))).isEqualTo(HttpStatus.OK);
+        }
+
+        assertThat(appointmentController.deleteAppointmentsBefore(startsAt.plusMinutes(30L * 15))
+                .getHeaders().getFirst("X-Deleted-Count")).isEqualTo("15");
+
+        assertThat(count("appointment")).isEqualTo(5);
+        assertThat(count("room_slot")).isEqualTo(5 * 2);
+        assertThat(appointmentIndex.size()).isEqualTo(5);
+        // The freed slots can be booked again, the remaining ones cannot
+        assertThat(book(startsAt)).isEqualTo(HttpStatus.OK);
+        assertThat(book(startsAt.plusMinutes(30L * 15))).isEqualTo(HttpStatus.NOT_ACCEPTABLE);
+    }
+
+    @Test
+    void shouldDeleteAllAppointmentsInChunks(){
+        for (int i = 0; i < 14; i++){
+            book(startsAt.plusMinutes(30L * i));
+        }
+
+        appointmentController.deleteAllAppointments();
+
+        assertThat(count("appointment")).isZero();
+        assertThat(count("room_slot")).isZero();
+        assertThat(appointmentIndex.size()).isZero();
+    }
+
+    @Test
+    void shouldReportMissingAppointmentsFromTheAffectedRows(){
+        book(startsAt);
+        long id = jdbcTemplate.queryForObject("select id from appointment", Long.class);
+
+        assertThat(appointmentController.deleteAppointment(id).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(appointmentController.deleteAppointment(id).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(count("room_slot")).isZero();
+    }
+
+    @Test
+    void shouldEvictOnlyThePartiesLeftWithoutAppointments(){
+        book(startsAt);
+        book(startsAt.plusHours(1));
+        long first = jdbcTemplate.queryForObject("select id from appointment where starts_at = ?", Long.class, startsAt);
+        long otherDoctor = jdbcTemplate.queryForObject("select doctor_id from appointment where id <> ?", Long.class, first);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(appointmentController.deleteAppointment(first).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // The parties with their reference counts, the slots, the appointment, its patient and its doctor
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+        assertThat(count("patient")).isEqualTo(1);
+        assertThat(count("doctors")).isEqualTo(1);
+        assertThat(count("room")).isEqualTo(1);
+
+        statistics.clear();
+        assertThat(doctorRepository.findById(otherDoctor)).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void shouldDeleteAllPatientsInChunks(){
+        for (int i = 0; i < 15; i++){
+            patientController.createPatient(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"));
+        }
+
+        patientController.deleteAllPatients();
+
+        assertThat(count("patient")).isZero();
+    }
+
+    private HttpStatus book(LocalDateTime startsAt){
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        return appointmentController.createAppointment(
+                new Appointment(patient, doctor, new Room("Dermatology"), startsAt, startsAt.plusMinutes(30))).getStatusCode();
+    }
+
+    private int count(String table){
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Keeps the SQL Hibernate prepares, so a test can EXPLAIN the statement a
+ * repository method really runs. Registered with
+ * spring.jpa.properties.hibernate.session_factory.statement_inspector.
+ */
+public class CapturedStatements implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql){
+        synchronized (STATEMENTS){
+            STATEMENTS.add(sql);
+        }
+        return sql;
+    }
+
+    static void clear(){
+        synchronized (STATEMENTS){
+            STATEMENTS.clear();
+        }
+    }
+
+    static String last(){
+        synchronized (STATEMENTS){
+            if (STATEMENTS.isEmpty()){
+                throw new IllegalStateException("No statement was prepared");
+            }
+            return STATEMENTS.get(STATEMENTS.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.controllers.AppointmentController;
+import com.example.demo.dto.AppointmentReference;
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+
+/**
+ * A day's schedule in which the same few doctors and patients come back
+ * again and again, the case the compact view is meant for.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CompactAppointmentsIntegrationTest {
+
+    private static final int DOCTORS = 8;
+    private static final int PATIENTS = 60;
+    private static final int ROOMS = 4;
+    private static final int APPOINTMENTS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppointmentController appointmentController;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime day = LocalDateTime.of(2023, 4, 24, 8, 0);
+
+    @BeforeEach
+    void setUp(){
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++){
+            patients.add(patientRepository.save(new Patient("Jose Luis", "Olaya " + i, 37, "j.olaya" + i + "@email.com")));
+        }
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 0; i < DOCTORS; i++){
+            doctors.add(doctorRepository.save(new Doctor("Perla", "Amalia " + i, 24, "p.amalia" + i + "@hospital.accwe")));
+        }
+        for (int i = 0; i < ROOMS; i++){
+            roomRepository.save(new Room("Room-" + i));
+        }
+        // Back to back quarter hours in each room
+        for (int i = 0; i < APPOINTMENTS; i++){
+            LocalDateTime startsAt = day.plusMinutes(15L * (i / ROOMS));
+            AppointmentReference reference = new AppointmentReference(patients.get(i % PATIENTS).getId(),
+                    doctors.get(i % DOCTORS).getId(), "Room-" + (i % ROOMS), startsAt, startsAt.plusMinutes(15));
+            assertThat(appointmentController.createAppointmentByReference(reference).getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+    }
+
+    @AfterEach
+    void cleanUp(){
+        appointmentController.deleteAllAppointments();
+        jdbcTemplate.update("delete from patient");
+        jdbcTemplate.update("delete from doctors");
+        jdbcTemplate.update("delete from room");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void shouldShrinkTheScheduleByMoreThanHalf() throws Exception {
+        int full = length("/api/appointments");
+        int compact = length("/api/appointments?view=compact");
+        int withDoctors = length("/api/appointments?view=compact&include=doctors");
+        int withBoth = length("/api/appointments?view=compact&include=patients,doctors");
+
+        assertThat(compact).isLessThan(full / 2);
+        assertThat(withDoctors).isLessThan(full / 2);
+        // Patients come back less often than doctors, so their table saves less
+        assertThat(withBoth).isLessThan(full);
+    }
+
+    @Test
+    void shouldListEachReferencedPartyOnce() throws Exception {
+        mockMvc.perform(get("/api/appointments").param("view", "compact").param("include", "patients,doctors")
+                        .param("room", "Room-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.appointments", Matchers.hasSize(APPOINTMENTS / ROOMS)))
+                .andExpect(jsonPath("$.appointments[0].roomName", Matchers.is("Room-1")))
+                .andExpect(jsonPath("$.appointments[0].startsAt", Matchers.is("08:00 24/04/2023")))
+                // Room-1 has every fourth appointment, so every fourth patient and doctor
+                .andExpect(jsonPath("$.patients.length()", Matchers.is(PATIENTS / ROOMS)))
+                .andExpect(jsonPath("$.doctors.length()", Matchers.is(DOCTORS / ROOMS)));
+    }
+
+    @Test
+    void shouldPageTheCompactView() throws Exception {
+        String cursor = mockMvc.perform(get("/api/appointments").param("view", "compact").param("include", "doctors")
+                        .param("limit", "150"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.appointments", Matchers.hasSize(150)))
+                .andExpect(jsonPath("$.doctors.length()", Matchers.is(DOCTORS)))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/api/appointments").param("view", "compact").param("after", cursor).param("limit", "150"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(APPOINTMENTS - 150)));
+    }
+
+    private int length(String url) throws Exception {
+        return mockMvc.perform(get(url)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray().length;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.demo.entities.*;
+import com.example.demo.json.DateTimeCodec;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+
+/**
+ * Checks the codec against the formatter-based serializer and deserializer
+ * it replaced: every day of years 1 to 9999, every minute of a day, a grid
+ * of out-of-range fields and malformed input must give the same JSON, the
+ * same values and fail in the same cases.
+ */
+class DateTimeCodecUnitTest {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+
+    private ObjectMapper codec;
+    private ObjectMapper formatter;
+
+    @BeforeEach
+    void setUp(){
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new JacksonConfiguration().jackson2ObjectMapperBuilderCustomizer().customize(builder);
+        codec = builder.build();
+
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        formatter = new Jackson2ObjectMapperBuilder()
+                .deserializers(new LocalDateDeserializer(dateFormatter), new LocalDateTimeDeserializer(FORMATTER))
+                .serializers(new LocalDateSerializer(dateFormatter), new LocalDateTimeSerializer(FORMATTER))
+                .build();
+    }
+
+    @Test
+    void shouldRoundTripEveryDayLikeTheFormatter(){
+        char[] buffer = new char[DateTimeCodec.LENGTH];
+        LocalTime time = LocalTime.of(13, 47);
+        for (LocalDate day = LocalDate.of(1, 1, 1); day.getYear() <= 9999; day = day.plusDays(1)){
+            LocalDateTime value = LocalDateTime.of(day, time);
+
+            assertThat(DateTimeCodec.format(value, buffer, 0)).isTrue();
+            String text = new String(buffer);
+            if (!text.equals(FORMATTER.format(value))){
+                assertThat(text).isEqualTo(FORMATTER.format(value));
+            }
+            LocalDateTime parsed = DateTimeCodec.parse(buffer, 0, buffer.length);
+            if (!value.equals(parsed)){
+                assertThat(parsed).isEqualTo(value);
+            }
+        }
+    }
+
+    @Test
+    void shouldRoundTripEveryMinuteLikeTheFormatter() throws Exception {
+        LocalDateTime midnight = LocalDateTime.of(2024, 2, 29, 0, 0);
+        for (int minute = 0; minute < 24 * 60; minute++){
+            LocalDateTime value = midnight.plusMinutes(minute);
+            String json = codec.writeValueAsString(value);
+
+            assertThat(json).isEqualTo(formatter.writeValueAsString(value));
+            assertThat(codec.readValue(json, LocalDateTime.class)).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void shouldReadOutOfRangeFieldsLikeTheFormatter(){
+        String[] hours = {"00", "09", "23", "24", "25"};
+        String[] minutes = {"00", "59", "60"};
+        String[] years = {"0000", "0001", "1900", "2000", "2023", "2024", "9999"};
+        for (String hour : hours){
+            for (String minute : minutes){
+                for (int day = 0; day <= 32; day++){
+                    for (int month = 0; month <= 13; month++){
+                        for (String year : years){
+                            String json = String.format("\"%s:%s %02d/%02d/%s\"", hour, minute, day, month, year);
+                            assertSameRead(json);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldReadMalformedInputLikeTheFormatter(){
+        String[] inputs = {"\"\"", "\" \"", "null", "\" 08:00 24/04/2023\"", "\"08:00 24/04/2023 \"", "\"8:00 24/04/2023\"",
+                "\"08-00 24/04/2023\"", "\"08:00 24-04-2023\"", "\"08:00 24/04/23\"", "\"08:0a 24/04/2023\"",
+                "\"٠٨:00 24/04/2023\"", "\"08:00 24/04/+10000\"", "\"08:00:00 24/04/2023\"", "\"2023-04-24T08:00\"",
+                "0", "1682323200000", "[2023,4,24,8,0]", "{}"};
+        for (String json : inputs){
+            assertSameRead(json);
+        }
+    }
+
+    @Test
+    void shouldWriteYearsOutsideFourDigitsLikeTheFormatter() throws Exception {
+        LocalDateTime[] values = {LocalDateTime.of(0, 1, 1, 0, 0), LocalDateTime.of(-44, 3, 15, 12, 0),
+                LocalDateTime.of(10000, 1, 1, 0, 0), LocalDateTime.MIN, LocalDateTime.MAX,
+                LocalDateTime.of(2023, 4, 24, 8, 0, 59, 999_999_999)};
+        for (LocalDateTime value : values){
+            assertThat(codec.writeValueAsString(value)).isEqualTo(formatter.writeValueAsString(value));
+        }
+    }
+
+    @Test
+    void shouldWriteAppointmentsAndOtherFormatsLikeTheFormatter() throws Exception {
+        Appointment appointment = new Appointment(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"),
+                new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"), new Room("Dermatology"),
+                LocalDateTime.of(2023, 4, 24, 8, 0), LocalDateTime.of(2023, 4, 24, 8, 45));
+        Visit visit = new Visit();
+        visit.at = LocalDateTime.of(2023, 4, 24, 8, 0);
+
+        String json = codec.writeValueAsString(appointment);
+        assertThat(json).isEqualTo(formatter.writeValueAsString(appointment)).contains("\"startsAt\":\"08:00 24/04/2023\"");
+        assertThat(codec.readValue(json, Appointment.class).getFinishesAt()).isEqualTo(appointment.getFinishesAt());
+        // A property with a pattern of its own still gets it
+        assertThat(codec.writeValueAsString(visit)).isEqualTo("{\"at\":\"2023-04-24 08:00\"}");
+        assertThat(codec.readValue("{\"at\":\"2023-04-24 08:00\"}", Visit.class).at).isEqualTo(visit.at);
+    }
+
+    private void assertSameRead(String json){
+        assertThat(read(codec, json)).as(json).isEqualTo(read(formatter, json));
+    }
+
+    /** The value read, or the type of the exception thrown. */
+    private static Object read(ObjectMapper objectMapper, String json){
+        try {
+            return String.valueOf(objectMapper.readValue(json, LocalDateTime.class));
+        } catch (Exception e) {
+            return e.getClass();
+        }
+    }
+
+    static class Visit {
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm")
+        public LocalDateTime at;
+    }
+}
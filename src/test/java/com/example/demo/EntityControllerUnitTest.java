@@ -13,9 +13,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.*;
 
@@ -35,6 +38,8 @@ import org.springframework.util.MultiValueMap;
 import com.example.demo.controllers.*;
 import com.example.demo.repositories.*;
 import com.example.demo.entities.*;
+import com.example.demo.dto.FreeSlot;
+import com.example.demo.services.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 
@@ -44,6 +49,15 @@ class DoctorControllerUnitTest {
     @MockBean
     private DoctorRepository doctorRepository;
 
+    @MockBean
+    private TableExport tableExport;
+
+    @MockBean
+    private BulkDelete bulkDelete;
+
+    @MockBean
+    private BatchInsert batchInsert;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -115,7 +129,7 @@ class DoctorControllerUnitTest {
     void deleteDoctor_DeletesExistingDoctor() throws Exception {
         Doctor doctor = new Doctor("Manuel", "Valera", 35, "manuelvalera@hotmail.com");
         long doctorId = doctor.getId();
-        Mockito.when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(new Doctor()));
+        Mockito.when(doctorRepository.deleteWithId(doctorId)).thenReturn(1);
 
         mockMvc.perform(MockMvcRequestBuilders.delete("/api/doctors/{id}", doctorId))
                 .andExpect(MockMvcResultMatchers.status().isOk());
@@ -124,7 +138,7 @@ class DoctorControllerUnitTest {
     @Test
     void deleteDoctor_ReturnsNotFoundForNonExistingDoctor() throws Exception {
         long nonExistingDoctorId = 99999;
-        Mockito.when(doctorRepository.findById(nonExistingDoctorId)).thenReturn(Optional.empty());
+        Mockito.when(doctorRepository.deleteWithId(nonExistingDoctorId)).thenReturn(0);
 
         mockMvc.perform(MockMvcRequestBuilders.delete("/api/doctors/{id}", nonExistingDoctorId))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
@@ -141,6 +155,54 @@ class DoctorControllerUnitTest {
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
 
+
+    @Test
+    void getAllDoctors_ReturnsFirstPageWithNextCursor() throws Exception {
+        Doctor first = new Doctor("Manuel", "Valera", 35, "manuelvalera@hotmail.com");
+        first.setId(1);
+        Doctor second = new Doctor("Antonio", "Rodriguez", 40, "example@example.com");
+        second.setId(2);
+        Doctor third = new Doctor("Miren", "Iniesta", 50, "m.iniesta@hospital.accwe");
+        third.setId(3);
+        // One row past the limit tells there is a next page
+        Mockito.when(doctorRepository.findByIdGreaterThanOrderByIdAsc(Mockito.eq(Long.MIN_VALUE), Mockito.any()))
+                .thenReturn(Arrays.asList(first, second, third));
+
+        mockMvc.perform(get("/api/doctors").param("limit", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(MockMvcResultMatchers.header().string("X-Next-Cursor", "2"))
+                .andExpect(MockMvcResultMatchers.header().string("Link", Matchers.containsString("after=2")));
+    }
+
+    @Test
+    void getAllDoctors_SeeksPastTheCursor() throws Exception {
+        Doctor doctor = new Doctor("Antonio", "Rodriguez", 40, "example@example.com");
+        doctor.setId(7);
+        Mockito.when(doctorRepository.findByIdGreaterThanOrderByIdAsc(Mockito.eq(5L), Mockito.any()))
+                .thenReturn(Collections.singletonList(doctor));
+
+        mockMvc.perform(get("/api/doctors").param("after", "5"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id", Matchers.is(7)))
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void exportDoctors_RejectsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/doctors/export").param("format", "xml"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void getAllDoctors_RejectsBadCursorOrLimit() throws Exception {
+        mockMvc.perform(get("/api/doctors").param("after", "abc"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(get("/api/doctors").param("limit", "0"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(get("/api/doctors").param("limit", "1001"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
 }
 
 @WebMvcTest(PatientController.class)
@@ -149,6 +211,15 @@ class PatientControllerUnitTest{
     @MockBean
     private PatientRepository patientRepository;
 
+    @MockBean
+    private TableExport tableExport;
+
+    @MockBean
+    private BulkDelete bulkDelete;
+
+    @MockBean
+    private BatchInsert batchInsert;
+
     @Autowired 
     private MockMvc mockMvc;
 
@@ -219,7 +290,7 @@ class PatientControllerUnitTest{
     void deletePatient_DeletesExistingPatient() throws Exception {
         Patient patient = new Patient("Manuel", "Valera", 35, "manuelvalera@hotmail.com");
         long patientId = patient.getId();
-        Mockito.when(patientRepository.findById(patientId)).thenReturn(Optional.of(new Patient()));
+        Mockito.when(patientRepository.deleteWithId(patientId)).thenReturn(1);
 
         mockMvc.perform(MockMvcRequestBuilders.delete("/api/patients/{id}", patientId))
                 .andExpect(MockMvcResultMatchers.status().isOk());
@@ -228,7 +299,7 @@ class PatientControllerUnitTest{
     @Test
     void deletePatient_ReturnsNotFoundForNonExistingPatient() throws Exception {
         long nonExistingDoctorId = 99999;
-        Mockito.when(patientRepository.findById(nonExistingDoctorId)).thenReturn(Optional.empty());
+        Mockito.when(patientRepository.deleteWithId(nonExistingDoctorId)).thenReturn(0);
 
         mockMvc.perform(MockMvcRequestBuilders.delete("/api/patients/{id}", nonExistingDoctorId))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
@@ -245,6 +316,48 @@ class PatientControllerUnitTest{
         mockMvc.perform(MockMvcRequestBuilders.delete("/api/patients"))
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
+
+    @Test
+    void getAllPatients_ReturnsNoContentPastTheLastPage() throws Exception {
+        Mockito.when(patientRepository.findByIdGreaterThanOrderByIdAsc(Mockito.eq(42L), Mockito.any()))
+                .thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/api/patients").param("after", "42").param("limit", "10"))
+                .andExpect(MockMvcResultMatchers.status().isNoContent());
+    }
+
+    @Test
+    void getPatientFields_RejectsUnknownFields() throws Exception {
+        mockMvc.perform(get("/api/patients").param("fields", "id,password"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(get("/api/patients/{id}", 1).param("fields", "patient.email"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        Mockito.verify(patientRepository, Mockito.never()).findAllFields(any());
+    }
+
+    @Test
+    void getPatientsById_ReturnsPatientsInRequestOrder() throws Exception {
+        Patient seventh = new Patient("Manuel", "Valera", 35, "manuelvalera@hotmail.com");
+        Patient third = new Patient("Antonio", "Rodriguez", 40, "example@example.com");
+        seventh.setId(7);
+        third.setId(3);
+        Mockito.when(patientRepository.findAllById(any())).thenReturn(Arrays.asList(third, seventh));
+
+        mockMvc.perform(get("/api/patients").param("ids", "7,5,3,7"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[*].id", Matchers.contains(7, 3)))
+                .andExpect(MockMvcResultMatchers.header().string("X-Missing-Ids", "5"));
+        Mockito.verify(patientRepository).findAllById(new HashSet<>(Arrays.asList(7L, 5L, 3L)));
+    }
+
+    @Test
+    void getPatientsById_RejectsMalformedIds() throws Exception {
+        mockMvc.perform(get("/api/patients").param("ids", "7,x"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(get("/api/patients").param("ids", "7").param("fields", "email"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        Mockito.verify(patientRepository, Mockito.never()).findAllById(any());
+    }
 }
 
 @WebMvcTest(RoomController.class)
@@ -253,6 +366,12 @@ class RoomControllerUnitTest{
     @MockBean
     private RoomRepository roomRepository;
 
+    @MockBean
+    private AppointmentIndex appointmentIndex;
+
+    @MockBean
+    private RoomAvailability roomAvailability;
+
     @Autowired 
     private MockMvc mockMvc;
 
@@ -295,6 +414,49 @@ class RoomControllerUnitTest{
                 .andExpect(MockMvcResultMatchers.jsonPath("$.roomName", Matchers.is(roomName)));
     }
 
+    @Test
+    void getRoomAvailability_ReturnsFreeSlotsOfTheDay() throws Exception {
+        LocalDate date = LocalDate.of(2023, 4, 24);
+        Mockito.when(roomAvailability.freeSlots("Dermatology", date)).thenReturn(Arrays.asList(
+                new FreeSlot("Dermatology", date.atStartOfDay(), date.atTime(19, 30)),
+                new FreeSlot("Dermatology", date.atTime(20, 30), date.plusDays(1).atStartOfDay())));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/rooms/{roomName}/availability", "Dermatology")
+                        .param("date", "24/04/2023"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].finishesAt", Matchers.is("19:30 24/04/2023")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].startsAt", Matchers.is("20:30 24/04/2023")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].finishesAt", Matchers.is("00:00 25/04/2023")));
+    }
+
+    @Test
+    void getFreeSlots_SearchesAllRoomsByDefault() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2023, 4, 24, 8, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 5, 24, 20, 0);
+        Mockito.when(roomRepository.findAll()).thenReturn(Arrays.asList(new Room("Dermatology"), new Room("Oncology")));
+        Mockito.when(appointmentIndex.freeSlots(Arrays.asList("Dermatology", "Oncology"), from, to, Duration.ofMinutes(30), 10))
+                .thenReturn(Collections.singletonList(new FreeSlot("Oncology", from, from.plusHours(1))));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/rooms/free-slots")
+                        .param("duration", "30")
+                        .param("from", "08:00 24/04/2023")
+                        .param("to", "20:00 24/05/2023"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].roomName", Matchers.is("Oncology")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].startsAt", Matchers.is("08:00 24/04/2023")));
+    }
+
+    @Test
+    void getFreeSlots_RejectsEmptyWindow() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/rooms/free-slots")
+                        .param("duration", "30")
+                        .param("from", "08:00 24/04/2023")
+                        .param("to", "08:00 24/04/2023")
+                        .param("room", "Dermatology"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
     @Test
     void getRoomByName_ReturnsNotFoundRoomByName() throws Exception {
         String roomName = "Ophthalmology";
@@ -321,7 +483,7 @@ class RoomControllerUnitTest{
     void deleteRoom_DeletesExistingRoom() throws Exception {
         Room room = new Room("Dermatology");
         String roomName = room.getRoomName();
-        Mockito.when(roomRepository.findByRoomName(roomName)).thenReturn(Optional.of(new Room()));
+        Mockito.when(roomRepository.deleteWithRoomName(roomName)).thenReturn(1);
 
         mockMvc.perform(MockMvcRequestBuilders.delete("/api/rooms/{roomName}", roomName))
                 .andExpect(MockMvcResultMatchers.status().isOk());
@@ -330,7 +492,7 @@ class RoomControllerUnitTest{
     @Test
     void deleteRoom_ReturnsNotFoundForNonExistingRoom() throws Exception {
         String nonExistingRoomName = "Ophthalmology";
-        Mockito.when(roomRepository.findByRoomName(nonExistingRoomName)).thenReturn(Optional.empty());
+        Mockito.when(roomRepository.deleteWithRoomName(nonExistingRoomName)).thenReturn(0);
 
         mockMvc.perform(MockMvcRequestBuilders.delete("/api/rooms/{roomName}", nonExistingRoomName))
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
@@ -347,6 +509,18 @@ class RoomControllerUnitTest{
         mockMvc.perform(MockMvcRequestBuilders.delete("/api/rooms"))
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
+
+    @Test
+    void getAllRooms_PagesByRoomName() throws Exception {
+        Mockito.when(roomRepository.findByRoomNameGreaterThanOrderByRoomNameAsc(Mockito.eq("Cardiology"), Mockito.any()))
+                .thenReturn(Arrays.asList(new Room("Dermatology"), new Room("Oncology")));
+
+        mockMvc.perform(get("/api/rooms").param("after", "Cardiology").param("limit", "1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].roomName", Matchers.is("Dermatology")))
+                .andExpect(MockMvcResultMatchers.header().string("X-Next-Cursor", "Dermatology"));
+    }
 }
 
 
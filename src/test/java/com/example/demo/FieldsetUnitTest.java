@@ -0,0 +1,84 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.persistence.Tuple;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.example.demo.entities.*;
+import com.example.demo.repositories.Fieldset;
+
+class FieldsetUnitTest {
+
+    @Test
+    void shouldSelectTheRequestedColumnsAndTheKey(){
+        Fieldset fields = Fieldset.of(Patient.class, Arrays.asList("email", "firstName"));
+
+        // Declaration order, then the id to continue a page from
+        assertThat(fields.select()).isEqualTo("select e.firstName, e.email, e.id from Patient e ");
+        assertThat(Fieldset.of(Room.class, Collections.singletonList("roomName")).select())
+                .isEqualTo("select r.roomName from Room r ");
+    }
+
+    @Test
+    void shouldOnlyJoinPartiesWhoseColumnsAreRequested(){
+        Fieldset billing = Fieldset.of(Appointment.class, Arrays.asList("id", "patient.id", "room"));
+        assertThat(billing.select())
+                .isEqualTo("select a.id, a.patient.id, a.room.roomName, a.startsAt from Appointment a ");
+
+        Fieldset kiosk = Fieldset.of(Appointment.class, Arrays.asList("startsAt", "finishesAt", "patient.lastName", "doctor.lastName"));
+        assertThat(kiosk.select()).isEqualTo("select p.lastName, d.lastName, a.startsAt, a.finishesAt, a.patient.id, a.doctor.id, a.id "
+                + "from Appointment a left join a.patient p left join a.doctor d ");
+    }
+
+    @Test
+    void shouldExpandAPartyToAllItsColumns(){
+        Fieldset fields = Fieldset.of(Appointment.class, Collections.singletonList("doctor"));
+
+        assertThat(fields.select()).startsWith("select a.doctor.id, d.firstName, d.lastName, d.age, d.email, ");
+    }
+
+    @Test
+    void shouldRejectUnknownFields(){
+        assertThatThrownBy(() -> Fieldset.of(Patient.class, Collections.singletonList("password")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Fieldset.of(Appointment.class, Collections.singletonList("patient.")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Fieldset.of(Doctor.class, Collections.singletonList("")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Fieldset.of(Doctor.class, Collections.emptyList()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldWriteOnlyTheRequestedPropertiesNestedByParty(){
+        Fieldset fields = Fieldset.of(Appointment.class, Arrays.asList("patient.lastName", "doctor.lastName", "startsAt"));
+        // p.lastName, d.lastName, a.startsAt, a.patient.id, a.doctor.id, a.id
+        Tuple row = row("Olaya", null, null, 7L, null, 3L);
+
+        Map<String, Object> patient = new LinkedHashMap<>();
+        patient.put("lastName", "Olaya");
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("patient", patient);
+        expected.put("doctor", null);
+        expected.put("startsAt", null);
+        assertThat(fields.toMap(row)).containsExactlyEntriesOf(expected);
+        assertThat(fields.get(row, "id")).isEqualTo(3L);
+    }
+
+    private static Tuple row(Object... values){
+        Tuple row = Mockito.mock(Tuple.class);
+        for (int i = 0; i < values.length; i++){
+            Mockito.when(row.get(i)).thenReturn(values[i]);
+        }
+        return row;
+    }
+}
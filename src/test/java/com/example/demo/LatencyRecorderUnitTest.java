@@ -0,0 +1,46 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.synthetic.LatencyRecorder;
+
+class LatencyRecorderUnitTest {
+
+    @Test
+    void shouldComputeNearestRankPercentiles(){
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int millis = 100; millis >= 1; millis--){
+            recorder.record(millis * 1_000_000L, millis > 98);
+        }
+
+        assertThat(recorder.getCount()).isEqualTo(100);
+        assertThat(recorder.getFailures()).isEqualTo(2);
+        assertThat(recorder.percentile(50)).isEqualTo(50.0);
+        assertThat(recorder.percentile(99)).isEqualTo(99.0);
+        assertThat(recorder.percentile(100)).isEqualTo(100.0);
+    }
+
+    @Test
+    void shouldMergeRecordersOfSeveralThreads(){
+        LatencyRecorder first = new LatencyRecorder();
+        LatencyRecorder second = new LatencyRecorder();
+        for (int i = 0; i < 2000; i++){
+            first.record(1_000_000L, false);
+            second.record(3_000_000L, true);
+        }
+
+        first.merge(second);
+
+        assertThat(first.getCount()).isEqualTo(4000);
+        assertThat(first.getFailures()).isEqualTo(2000);
+        assertThat(first.percentile(50)).isEqualTo(1.0);
+        assertThat(first.percentile(51)).isEqualTo(3.0);
+    }
+
+    @Test
+    void shouldReportZeroWithoutSamples(){
+        assertThat(new LatencyRecorder().percentile(99)).isZero();
+    }
+}
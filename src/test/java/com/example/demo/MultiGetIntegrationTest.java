@@ -0,0 +1,167 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.controllers.AppointmentController;
+import com.example.demo.dto.AppointmentReference;
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+
+/**
+ * A day view: the patients and doctors of a page of appointments, fetched in
+ * one request each instead of one per appointment.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class MultiGetIntegrationTest {
+
+    private static final int PEOPLE = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppointmentController appointmentController;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    private final List<Patient> patients = new ArrayList<>();
+    private final List<Doctor> doctors = new ArrayList<>();
+
+    @BeforeEach
+    void setUp(){
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (int i = 0; i < PEOPLE; i++){
+            patients.add(patientRepository.save(new Patient("Jose Luis", "Olaya " + i, 37, "j.olaya" + i + "@email.com")));
+            doctors.add(doctorRepository.save(new Doctor("Perla", "Amalia " + i, 24, "p.amalia" + i + "@hospital.accwe")));
+        }
+        roomRepository.save(new Room("Dermatology"));
+        roomRepository.save(new Room("Ophthalmology"));
+        LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 8, 0);
+        for (int i = 0; i < PEOPLE; i++){
+            AppointmentReference reference = new AppointmentReference(patients.get(i).getId(), doctors.get(i).getId(),
+                    "Dermatology", startsAt.plusMinutes(30L * i), startsAt.plusMinutes(30L * i + 30));
+            assertThat(appointmentController.createAppointmentByReference(reference).getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+    }
+
+    @AfterEach
+    void cleanUp(){
+        appointmentController.deleteAllAppointments();
+        jdbcTemplate.update("delete from patient");
+        jdbcTemplate.update("delete from doctors");
+        jdbcTemplate.update("delete from room");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void shouldReadEveryIdInOneStatementInRequestOrder() throws Exception {
+        long missing = patients.get(PEOPLE - 1).getId() + 1000;
+        String ids = ids(patients.get(4), patients.get(1)) + "," + missing + "," + ids(patients.get(7), patients.get(1));
+        statistics.clear();
+
+        mockMvc.perform(get("/api/patients").param("ids", ids))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].lastName", Matchers.contains("Olaya 4", "Olaya 1", "Olaya 7")))
+                .andExpect(header().string("X-Missing-Ids", String.valueOf(missing)));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReadAppointmentsWithTheirPartiesInOneStatement() throws Exception {
+        List<Long> appointments = jdbcTemplate.queryForList("select id from appointment order by starts_at desc", Long.class);
+        statistics.clear();
+
+        mockMvc.perform(get("/api/appointments").param("ids", appointments.get(0) + "," + appointments.get(1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].patient.lastName", Matchers.contains("Olaya 9", "Olaya 8")))
+                .andExpect(jsonPath("$[0].doctor.lastName", Matchers.is("Amalia 9")))
+                .andExpect(jsonPath("$[0].room.roomName", Matchers.is("Dermatology")))
+                .andExpect(header().doesNotExist("X-Missing-Ids"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldChunkLongIdLists() throws Exception {
+        StringJoiner ids = new StringJoiner(",");
+        for (Doctor doctor : doctors){
+            ids.add(String.valueOf(doctor.getId()));
+        }
+        for (int i = 1; i <= 1000 - PEOPLE; i++){
+            ids.add(String.valueOf(-i));
+        }
+        statistics.clear();
+
+        mockMvc.perform(get("/api/doctors").param("ids", ids.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(PEOPLE)))
+                .andExpect(jsonPath("$[0].lastName", Matchers.is("Amalia 0")))
+                .andExpect(header().string("X-Missing-Ids", Matchers.startsWith("-1,-2,")));
+
+        // 1000 ids in IN lists of 500
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        mockMvc.perform(get("/api/doctors").param("ids", ids + ",-1000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReadRoomsByName() throws Exception {
+        mockMvc.perform(get("/api/rooms").param("names", "Ophthalmology,Cardiology,Dermatology"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].roomName", Matchers.contains("Ophthalmology", "Dermatology")))
+                .andExpect(header().string("X-Missing-Ids", "Cardiology"));
+
+        mockMvc.perform(get("/api/rooms").param("names", "Cardiology"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("X-Missing-Ids", "Cardiology"));
+    }
+
+    private static String ids(Patient... patients){
+        StringJoiner ids = new StringJoiner(",");
+        for (Patient patient : patients){
+            ids.add(String.valueOf(patient.getId()));
+        }
+        return ids.toString();
+    }
+}
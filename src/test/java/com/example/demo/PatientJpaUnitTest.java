@@ -3,8 +3,11 @@ package com.example.demo;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
@@ -102,5 +105,19 @@ class PatientJpaUnitTest {
         repository.deleteAll();
         assertThat(repository.findAll()).isEmpty();
     }
-    
+
+    @Test
+    void should_find_patients_after_an_id(){
+        Patient patient1 = new Patient("Juan","Carlos", 34, "j.carlos@hospital.accwe");
+        Patient patient2 = new Patient("Cornelio","Andrea", 59, "c.andrea@hospital.accwe");
+        Patient patient3 = new Patient("Clarisa","Julia", 29, "c.julia@hospital.accwe");
+
+        entityManager.persist(patient1);
+        entityManager.persist(patient2);
+        entityManager.persist(patient3);
+
+        List<Patient> page = repository.findByIdGreaterThanOrderByIdAsc(patient1.getId(), PageRequest.of(0, 1));
+
+        assertThat(page).containsExactly(patient2);
+    }
 }
@@ -0,0 +1,57 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.demo.entities.Room;
+import com.example.demo.reactive.ReactiveReadRoutes;
+import com.example.demo.reactive.ReactiveReads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+
+class ReactiveReadRoutesUnitTest {
+
+    @Test
+    void shouldWriteJsonArraysBeforeTheQueryCompletes(){
+        ReactiveReads reads = Mockito.mock(ReactiveReads.class);
+        // A query that never finishes: nothing would be written if the list were collected first
+        Mockito.when(reads.rooms()).thenReturn(Flux.concat(Flux.just(new Room("Dermatology"), new Room("Oncology")), Flux.never()));
+        WebTestClient client = WebTestClient.bindToRouterFunction(new ReactiveReadRoutes(reads, new ObjectMapper()).routes()).build();
+
+        String written = client.get().uri("/api/rooms").accept(MediaType.APPLICATION_JSON).exchange()
+                .expectStatus().isOk()
+                .returnResult(DataBuffer.class).getResponseBody()
+                .map(buffer -> {
+                    String text = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return text;
+                })
+                .scan(String::concat)
+                .filter(text -> text.contains("Oncology"))
+                .next().block(Duration.ofSeconds(5));
+
+        assertThat(written).isEqualTo("[{\"roomName\":\"Dermatology\"},{\"roomName\":\"Oncology\"}");
+    }
+
+    @Test
+    void shouldWriteEmptyJsonArrays(){
+        ReactiveReads reads = Mockito.mock(ReactiveReads.class);
+        Mockito.when(reads.doctors()).thenReturn(Flux.empty());
+        WebTestClient client = WebTestClient.bindToRouterFunction(new ReactiveReadRoutes(reads, new ObjectMapper()).routes()).build();
+
+        client.get().uri("/api/doctors").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody(String.class).isEqualTo("[]");
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.example.demo.controllers.AppointmentController;
+import com.example.demo.entities.*;
+import com.example.demo.reactive.ReactiveServer;
+
+@SpringBootTest(properties = {"reactive.enabled=true", "reactive.r2dbc.pool-size=4"})
+@AutoConfigureMockMvc
+class ReactiveReadsIntegrationTest {
+
+    private static final int APPOINTMENTS = 60;
+
+    @Autowired
+    private ReactiveServer reactiveServer;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppointmentController appointmentController;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 8, 0);
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp(){
+        client = WebTestClient.bindToServer().baseUrl(baseUrl()).build();
+        for (int i = 0; i < APPOINTMENTS; i++){
+            Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya" + i + "@email.com");
+            Doctor doctor = new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+            LocalDateTime at = startsAt.plusMinutes(30L * i);
+            appointmentController.createAppointment(new Appointment(patient, doctor, new Room("Dermatology"), at, at.plusMinutes(30)));
+        }
+    }
+
+    @AfterEach
+    void cleanUp(){
+        appointmentController.deleteAllAppointments();
+    }
+
+    @Test
+    void shouldWriteTheSameJsonAsTheServletEndpoints() throws Exception {
+        long id = jdbcTemplate.queryForObject("select max(id) from appointment", Long.class);
+        long patientId = jdbcTemplate.queryForObject("select max(id) from patient", Long.class);
+
+        for (String path : new String[] {"/api/appointments/" + id, "/api/patients/" + patientId, "/api/rooms/Dermatology",
+                "/api/appointments", "/api/doctors"}){
+            String servlet = mockMvc.perform(get(path)).andReturn().getResponse().getContentAsString();
+            String reactive = client.get().uri(path).exchange()
+                    .expectStatus().isOk()
+                    .expectBody(String.class).returnResult().getResponseBody();
+
+            assertThat(reactive).isEqualTo(servlet);
+        }
+        // The last one, 59 half hours after the first
+        client.get().uri("/api/appointments/" + id).exchange()
+                .expectBody().jsonPath("$.startsAt").isEqualTo("13:30 25/04/2023");
+    }
+
+    @Test
+    void shouldStreamListsAsNdjsonInOrder(){
+        List<String> lines = client.get().uri("/api/appointments").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(String.class).getResponseBody()
+                .collectList().block(Duration.ofSeconds(10));
+
+        assertThat(lines).hasSize(APPOINTMENTS);
+        assertThat(lines.get(0)).contains("\"startsAt\":\"08:00 24/04/2023\"", "\"roomName\":\"Dermatology\"");
+
+        client.get().uri("/api/doctors").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody().jsonPath("$.length()").isEqualTo(APPOINTMENTS);
+    }
+
+    @Test
+    void shouldReleaseConnectionsOfCancelledStreams(){
+        WebClient webClient = WebClient.create(baseUrl());
+
+        // Many more readers than connections, each taking a few rows at a time and leaving early
+        for (int i = 0; i < 20; i++){
+            List<String> firstRows = webClient.get().uri("/api/appointments").accept(MediaType.APPLICATION_NDJSON)
+                    .retrieve().bodyToFlux(String.class)
+                    .limitRate(5)
+                    .take(10)
+                    .collectList().block(Duration.ofSeconds(10));
+
+            assertThat(firstRows).hasSize(10);
+        }
+        client.get().uri("/api/rooms").exchange().expectStatus().isOk()
+                .expectBody().jsonPath("$[0].roomName").isEqualTo("Dermatology");
+    }
+
+    @Test
+    void shouldAnswerNotFoundAndBadRequest(){
+        client.get().uri("/api/appointments/-1").exchange().expectStatus().isNotFound();
+        client.get().uri("/api/doctors/-1").exchange().expectStatus().isNotFound();
+        client.get().uri("/api/rooms/Oncology").exchange().expectStatus().isNotFound();
+        client.get().uri("/api/patients/one").exchange().expectStatus().isBadRequest();
+    }
+
+    private String baseUrl(){
+        return "http://localhost:" + reactiveServer.getPort();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.dto.AppointmentInterval;
+import com.example.demo.dto.FreeSlot;
+import com.example.demo.entities.*;
+import com.example.demo.repositories.AppointmentRepository;
+import com.example.demo.services.AppointmentIndex;
+import com.example.demo.services.RoomAvailability;
+
+class RoomAvailabilityUnitTest {
+
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
+
+    private AppointmentIndex index;
+    private RoomAvailability availability;
+
+    @BeforeEach
+    void setUp(){
+        index = new AppointmentIndex(mock(AppointmentRepository.class));
+        availability = new RoomAvailability(index);
+    }
+
+    @Test
+    void shouldRebuildFromTheIndex(){
+        index.add(new AppointmentInterval(1, "Dermatology", at("09:00 24/04/2023"), at("10:00 24/04/2023")));
+        index.add(new AppointmentInterval(2, "Oncology", at("09:00 25/04/2023"), at("10:00 25/04/2023")));
+
+        availability.rebuild();
+
+        assertThat(availability.getRoomDays()).isEqualTo(2);
+        assertThat(availability.getOffHeapBytes()).isPositive();
+        assertThat(availability.conflicts(appointment("Dermatology", "09:59 24/04/2023", "10:30 24/04/2023"))).isTrue();
+        assertThat(availability.conflicts(appointment("Dermatology", "09:00 25/04/2023", "10:00 25/04/2023"))).isFalse();
+    }
+
+    @Test
+    void shouldRejectOverlapsAtMinuteResolution(){
+        book(1, "Dermatology", "19:30 24/04/2023", "20:30 24/04/2023");
+
+        assertThat(availability.conflicts(appointment("Dermatology", "19:30 24/04/2023", "20:30 24/04/2023"))).isTrue();
+        assertThat(availability.conflicts(appointment("Dermatology", "19:00 24/04/2023", "19:31 24/04/2023"))).isTrue();
+        assertThat(availability.conflicts(appointment("Dermatology", "20:29 24/04/2023", "21:00 24/04/2023"))).isTrue();
+        assertThat(availability.conflicts(appointment("Dermatology", "18:00 24/04/2023", "23:00 24/04/2023"))).isTrue();
+        assertThat(availability.conflicts(appointment("Dermatology", "18:30 24/04/2023", "19:30 24/04/2023"))).isFalse();
+        assertThat(availability.conflicts(appointment("Dermatology", "20:30 24/04/2023", "21:30 24/04/2023"))).isFalse();
+        assertThat(availability.conflicts(appointment("Oncology", "19:30 24/04/2023", "20:30 24/04/2023"))).isFalse();
+    }
+
+    @Test
+    void shouldHandleAppointmentsAcrossMidnight(){
+        book(1, "Emergency", "23:00 24/04/2023", "01:00 25/04/2023");
+
+        assertThat(availability.conflicts(appointment("Emergency", "23:59 24/04/2023", "00:01 25/04/2023"))).isTrue();
+        assertThat(availability.conflicts(appointment("Emergency", "00:30 25/04/2023", "02:00 25/04/2023"))).isTrue();
+        assertThat(availability.conflicts(appointment("Emergency", "01:00 25/04/2023", "02:00 25/04/2023"))).isFalse();
+
+        List<FreeSlot> free = availability.freeSlots("Emergency", LocalDate.of(2023, 4, 25));
+        assertThat(free).hasSize(1);
+        assertThat(free.get(0).getStartsAt()).isEqualTo(at("01:00 25/04/2023"));
+        assertThat(free.get(0).getFinishesAt()).isEqualTo(at("00:00 26/04/2023"));
+    }
+
+    @Test
+    void shouldListFreeSlotsOfADay(){
+        book(1, "Dermatology", "09:00 24/04/2023", "10:00 24/04/2023");
+        book(2, "Dermatology", "10:00 24/04/2023", "11:15 24/04/2023");
+        book(3, "Dermatology", "12:00 24/04/2023", "12:30 24/04/2023");
+
+        List<FreeSlot> free = availability.freeSlots("Dermatology", LocalDate.of(2023, 4, 24));
+
+        assertThat(free).hasSize(3);
+        assertThat(free.get(0).getStartsAt()).isEqualTo(at("00:00 24/04/2023"));
+        assertThat(free.get(0).getFinishesAt()).isEqualTo(at("09:00 24/04/2023"));
+        assertThat(free.get(1).getStartsAt()).isEqualTo(at("11:15 24/04/2023"));
+        assertThat(free.get(1).getFinishesAt()).isEqualTo(at("12:00 24/04/2023"));
+        assertThat(free.get(2).getStartsAt()).isEqualTo(at("12:30 24/04/2023"));
+        assertThat(free.get(2).getFinishesAt()).isEqualTo(at("00:00 25/04/2023"));
+    }
+
+    @Test
+    void shouldReportWholeDayFreeForUnknownRooms(){
+        List<FreeSlot> free = availability.freeSlots("Radiology", LocalDate.of(2023, 4, 24));
+
+        assertThat(free).hasSize(1);
+        assertThat(free.get(0).getRoomName()).isEqualTo("Radiology");
+        assertThat(free.get(0).getStartsAt()).isEqualTo(at("00:00 24/04/2023"));
+        assertThat(free.get(0).getFinishesAt()).isEqualTo(at("00:00 25/04/2023"));
+    }
+
+    @Test
+    void shouldFreeMinutesOfRemovedAppointmentsOnly(){
+        book(1, "Dermatology", "09:00 24/04/2023", "10:00 24/04/2023");
+        book(2, "Dermatology", "09:30 24/04/2023", "11:00 24/04/2023");
+
+        availability.remove(index.remove(1));
+
+        assertThat(availability.conflicts(appointment("Dermatology", "09:00 24/04/2023", "09:30 24/04/2023"))).isFalse();
+        assertThat(availability.conflicts(appointment("Dermatology", "09:45 24/04/2023", "10:00 24/04/2023"))).isTrue();
+
+        availability.clear();
+
+        assertThat(availability.getRoomDays()).isZero();
+        assertThat(availability.conflicts(appointment("Dermatology", "09:45 24/04/2023", "10:00 24/04/2023"))).isFalse();
+    }
+
+    private void book(long id, String roomName, String startsAt, String finishesAt){
+        AppointmentInterval interval = new AppointmentInterval(id, roomName, at(startsAt), at(finishesAt));
+        index.add(interval);
+        availability.add(interval);
+    }
+
+    private LocalDateTime at(String text){
+        return LocalDateTime.parse(text, formatter);
+    }
+
+    private Appointment appointment(String roomName, String startsAt, String finishesAt){
+        return new Appointment(new Patient(), new Doctor(), new Room(roomName), at(startsAt), at(finishesAt));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.services.RoomLocks;
+
+class RoomLocksUnitTest {
+
+    @Test
+    void shouldRoundStripeCountUpToPowerOfTwo(){
+        assertThat(new RoomLocks(64).getStripeCount()).isEqualTo(64);
+        assertThat(new RoomLocks(100).getStripeCount()).isEqualTo(128);
+        assertThat(new RoomLocks(1).getStripeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectNonPositiveStripeCount(){
+        assertThatThrownBy(() -> new RoomLocks(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldAlwaysReturnTheSameLockForARoom(){
+        RoomLocks locks = new RoomLocks(16);
+
+        assertThat(locks.forRoom("Dermatology")).isSameAs(locks.forRoom(new String("Dermatology")));
+        assertThat(locks.forRoom(null)).isSameAs(locks.forRoom(null));
+    }
+
+    @Test
+    void shouldSpreadRoomsOverStripes(){
+        RoomLocks locks = new RoomLocks(16);
+        boolean[] used = new boolean[locks.getStripeCount()];
+
+        for (int i = 0; i < 200; i++){
+            used[locks.stripeOf("Room-" + i)] = true;
+        }
+
+        for (boolean stripeUsed : used){
+            assertThat(stripeUsed).isTrue();
+        }
+    }
+}
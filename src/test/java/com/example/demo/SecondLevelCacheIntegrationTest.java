@@ -0,0 +1,136 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager hibernateCacheManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp(){
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp(){
+        doctorRepository.deleteAll();
+        patientRepository.deleteAll();
+        roomRepository.deleteAll();
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromTheCache() throws Exception {
+        Doctor doctor = doctorRepository.save(new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"));
+        Patient patient = patientRepository.save(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"));
+
+        mockMvc.perform(get("/api/doctors/{id}", doctor.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/patients/{id}", patient.getId())).andExpect(status().isOk());
+
+        statistics.clear();
+        mockMvc.perform(get("/api/doctors/{id}", doctor.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", Matchers.is("Perla")));
+        mockMvc.perform(get("/api/patients/{id}", patient.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", Matchers.is("j.olaya@email.com")));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics(Doctor.class.getName()).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(Patient.class.getName()).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCacheRoomLookupsByName() throws Exception {
+        roomRepository.save(new Room("Dermatology"));
+
+        mockMvc.perform(get("/api/rooms/Dermatology")).andExpect(status().isOk());
+        statistics.clear();
+        mockMvc.perform(get("/api/rooms/Dermatology"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roomName", Matchers.is("Dermatology")));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotServeDeletedEntitiesFromTheCache() throws Exception {
+        Doctor doctor = doctorRepository.save(new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"));
+        roomRepository.save(new Room("Oncology"));
+        mockMvc.perform(get("/api/doctors/{id}", doctor.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/rooms/Oncology")).andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/doctors/{id}", doctor.getId())).andExpect(status().isOk());
+        mockMvc.perform(delete("/api/rooms/Oncology")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/doctors/{id}", doctor.getId())).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/rooms/Oncology")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReportHitRatios() throws Exception {
+        Doctor doctor = doctorRepository.save(new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"));
+        // Saving puts the doctor in the cache, so every read below is a hit
+        for (int i = 0; i < 3; i++){
+            mockMvc.perform(get("/api/doctors/{id}", doctor.getId())).andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/cache/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.region == 'com.example.demo.entities.Doctor')].hits", Matchers.hasItem(Matchers.greaterThanOrEqualTo(3))))
+                .andExpect(jsonPath("$[?(@.region == 'com.example.demo.entities.Doctor')].hitRatio", Matchers.hasItem(Matchers.greaterThan(0.0))))
+                .andExpect(jsonPath("$[*].region", Matchers.hasItem("default-query-results-region")));
+    }
+
+    @Test
+    void shouldHandOutCachedEntriesWithoutCopying() throws Exception {
+        Doctor doctor = doctorRepository.save(new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe"));
+        mockMvc.perform(get("/api/doctors/{id}", doctor.getId())).andExpect(status().isOk());
+
+        // Hibernate never mutates what it caches, so a read is not worth a serialized copy
+        Cache<Object, Object> region = hibernateCacheManager.getCache(Doctor.class.getName());
+        Object key = region.iterator().next().getKey();
+        assertThat(region.get(key)).isNotNull().isSameAs(region.get(key));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.controllers.AppointmentController;
+import com.example.demo.entities.*;
+import com.example.demo.services.AppointmentIndex;
+import com.example.demo.services.RoomAvailability;
+
+@SpringBootTest(properties = {
+    "appointments.slot-ledger.enabled=true",
+    "appointments.slot-ledger.granularity-minutes=15"
+})
+class SlotLedgerIntegrationTest {
+
+    @Autowired
+    private AppointmentController appointmentController;
+
+    @Autowired
+    private AppointmentIndex appointmentIndex;
+
+    @Autowired
+    private RoomAvailability roomAvailability;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime startsAt = LocalDateTime.of(2023, 4, 24, 19, 30);
+
+    @AfterEach
+    void cleanUp(){
+        appointmentController.deleteAllAppointments();
+    }
+
+    @Test
+    void shouldReserveOneSlotPerBucket(){
+        assertThat(book("Dermatology", startsAt, startsAt.plusMinutes(50))).isEqualTo(HttpStatus.OK);
+
+        // 19:30, 19:45, 20:00 and 20:15
+        assertThat(countSlots()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldLetTheDatabaseRejectDoubleBookings(){
+        assertThat(book("Dermatology", startsAt, startsAt.plusHours(1))).isEqualTo(HttpStatus.OK);
+
+        // Another instance would not know about the first booking
+        appointmentIndex.clear();
+        roomAvailability.clear();
+
+        assertThat(book("Dermatology", startsAt.plusMinutes(30), startsAt.plusHours(2))).isEqualTo(HttpStatus.NOT_ACCEPTABLE);
+        assertThat(book("Oncology", startsAt.plusMinutes(30), startsAt.plusHours(2))).isEqualTo(HttpStatus.OK);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from appointment", Integer.class)).isEqualTo(2);
+        assertThat(countSlots()).isEqualTo(4 + 6);
+    }
+
+    @Test
+    void shouldReleaseSlotsWhenAppointmentsAreDeleted(){
+        assertThat(book("Dermatology", startsAt, startsAt.plusHours(1))).isEqualTo(HttpStatus.OK);
+        long id = jdbcTemplate.queryForObject("select id from appointment", Long.class);
+
+        appointmentController.deleteAppointment(id);
+
+        assertThat(countSlots()).isZero();
+        assertThat(book("Dermatology", startsAt, startsAt.plusHours(1))).isEqualTo(HttpStatus.OK);
+        assertThat(book("Oncology", startsAt, startsAt.plusHours(1))).isEqualTo(HttpStatus.OK);
+
+        appointmentController.deleteAllAppointments();
+
+        assertThat(countSlots()).isZero();
+    }
+
+    private HttpStatus book(String roomName, LocalDateTime startsAt, LocalDateTime finishesAt){
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor ("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        return appointmentController.createAppointment(
+                new Appointment(patient, doctor, new Room(roomName), startsAt, finishesAt)).getStatusCode();
+    }
+
+    private int countSlots(){
+        return jdbcTemplate.queryForObject("select count(*) from room_slot", Integer.class);
+    }
+}
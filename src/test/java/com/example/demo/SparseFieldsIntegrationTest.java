@@ -0,0 +1,217 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.demo.controllers.AppointmentController;
+import com.example.demo.dto.AppointmentReference;
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+
+/**
+ * The two narrow clients of the listings: the waiting room kiosk, which shows
+ * names and times, and billing, which wants ids and emails.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class SparseFieldsIntegrationTest {
+
+    private static final int PEOPLE = 20;
+    private static final int ROOMS = 4;
+    private static final int APPOINTMENTS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppointmentController appointmentController;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    private final LocalDateTime day = LocalDateTime.of(2023, 4, 24, 8, 0);
+
+    private final List<Patient> patients = new ArrayList<>();
+
+    @BeforeEach
+    void setUp(){
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 0; i < PEOPLE; i++){
+            patients.add(patientRepository.save(new Patient("Jose Luis", "Olaya " + i, 37, "j.olaya" + i + "@email.com")));
+            doctors.add(doctorRepository.save(new Doctor("Perla", "Amalia " + i, 24, "p.amalia" + i + "@hospital.accwe")));
+        }
+        for (int i = 0; i < ROOMS; i++){
+            roomRepository.save(new Room("Room-" + i));
+        }
+        for (int i = 0; i < APPOINTMENTS; i++){
+            LocalDateTime startsAt = day.plusMinutes(15L * (i / ROOMS));
+            AppointmentReference reference = new AppointmentReference(patients.get(i % PEOPLE).getId(),
+                    doctors.get(i % PEOPLE).getId(), "Room-" + (i % ROOMS), startsAt, startsAt.plusMinutes(15));
+            assertThat(appointmentController.createAppointmentByReference(reference).getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+    }
+
+    @AfterEach
+    void cleanUp(){
+        appointmentController.deleteAllAppointments();
+        jdbcTemplate.update("delete from patient");
+        jdbcTemplate.update("delete from doctors");
+        jdbcTemplate.update("delete from room");
+    }
+
+    @Test
+    void shouldListTheKioskFieldsWithoutLoadingEntities() throws Exception {
+        String kiosk = "/api/appointments?fields=startsAt,finishesAt,patient.firstName,patient.lastName,doctor.lastName";
+        statistics.clear();
+        mockMvc.perform(get(kiosk))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(APPOINTMENTS)))
+                .andExpect(jsonPath("$[0].length()", Matchers.is(4)))
+                .andExpect(jsonPath("$[0].startsAt", Matchers.is("08:00 24/04/2023")))
+                .andExpect(jsonPath("$[0].finishesAt", Matchers.is("08:15 24/04/2023")))
+                .andExpect(jsonPath("$[0].patient.length()", Matchers.is(2)))
+                .andExpect(jsonPath("$[0].patient.lastName", Matchers.is("Olaya 0")))
+                .andExpect(jsonPath("$[0].doctor.length()", Matchers.is(1)))
+                .andExpect(jsonPath("$[0].doctor.lastName", Matchers.is("Amalia 0")))
+                .andExpect(jsonPath("$[0].id").doesNotExist());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        int full = length("/api/appointments");
+        int narrow = length(kiosk);
+        assertThat(narrow).isLessThan(full / 2);
+    }
+
+    @Test
+    void shouldListTheBillingFields() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/api/patients").param("fields", "id,email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(PEOPLE)))
+                .andExpect(jsonPath("$[0].length()", Matchers.is(2)))
+                .andExpect(jsonPath("$[0].id", Matchers.is((int) patients.get(0).getId())))
+                .andExpect(jsonPath("$[0].email", Matchers.is("j.olaya0@email.com")));
+        mockMvc.perform(get("/api/doctors").param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].length()", Matchers.is(1)))
+                .andExpect(jsonPath("$[0].email", Matchers.is("p.amalia0@hospital.accwe")));
+        // The patient ids are the foreign key column of the appointment
+        mockMvc.perform(get("/api/appointments").param("fields", "id,patient.id").param("patient", String.valueOf(patients.get(3).getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(APPOINTMENTS / PEOPLE)))
+                .andExpect(jsonPath("$[0].patient.length()", Matchers.is(1)))
+                .andExpect(jsonPath("$[0].patient.id", Matchers.is((int) patients.get(3).getId())));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void shouldPageAndFilterWithFields() throws Exception {
+        String cursor = mockMvc.perform(get("/api/appointments").param("fields", "room").param("limit", "150"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(150)))
+                .andExpect(jsonPath("$[0].room.roomName", Matchers.is("Room-0")))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+        mockMvc.perform(get("/api/appointments").param("fields", "room").param("after", cursor).param("limit", "150"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(APPOINTMENTS - 150)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        mockMvc.perform(get("/api/appointments").param("fields", "room,startsAt").param("room", "Room-1")
+                        .param("from", "09:00 24/04/2023").param("to", "10:00 24/04/2023"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(4)))
+                .andExpect(jsonPath("$[*].room.roomName", Matchers.everyItem(Matchers.is("Room-1"))))
+                .andExpect(jsonPath("$[0].startsAt", Matchers.is("09:00 24/04/2023")));
+
+        String patientCursor = mockMvc.perform(get("/api/patients").param("fields", "lastName").param("limit", "15"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(15)))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+        assertThat(patientCursor).isEqualTo(String.valueOf(patients.get(14).getId()));
+
+        mockMvc.perform(get("/api/rooms").param("fields", "roomName").param("after", "Room-1").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].roomName", Matchers.contains("Room-2", "Room-3")));
+    }
+
+    @Test
+    void shouldReadOneRowWithFields() throws Exception {
+        Patient patient = patients.get(5);
+        mockMvc.perform(get("/api/patients/{id}", patient.getId()).param("fields", "firstName,age"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", Matchers.is(2)))
+                .andExpect(jsonPath("$.age", Matchers.is(37)));
+        mockMvc.perform(get("/api/rooms/{roomName}", "Room-2").param("fields", "roomName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roomName", Matchers.is("Room-2")));
+
+        long id = jdbcTemplate.queryForObject("select max(id) from appointment", Long.class);
+        mockMvc.perform(get("/api/appointments/{id}", id).param("fields", "id,doctor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", Matchers.is((int) id)))
+                .andExpect(jsonPath("$.doctor.length()", Matchers.is(5)))
+                .andExpect(jsonPath("$.doctor.email", Matchers.is("p.amalia19@hospital.accwe")));
+
+        mockMvc.perform(get("/api/doctors/{id}", -1).param("fields", "email"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/appointments/{id}", -1).param("fields", "id"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldWriteAMissingPartyAsNull() throws Exception {
+        LocalDateTime startsAt = day.minusDays(1);
+        appointmentController.createAppointment(new Appointment(new Patient("Andrea", "Gil", 52, "a.gil@email.com"), null,
+                new Room("Room-9"), startsAt, startsAt.plusMinutes(30)));
+
+        mockMvc.perform(get("/api/appointments").param("fields", "patient.lastName,doctor.lastName").param("room", "Room-9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$[0].patient.lastName", Matchers.is("Gil")))
+                .andExpect(jsonPath("$[0].doctor", Matchers.nullValue()));
+    }
+
+    private int length(String url) throws Exception {
+        return mockMvc.perform(get(url)).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray().length;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.entities.Patient;
+import com.example.demo.repositories.PatientRepository;
+import com.example.demo.services.AppointmentIndex;
+import com.example.demo.synthetic.LatencyRecorder;
+import com.example.demo.synthetic.LoadDriver;
+import com.example.demo.synthetic.SyntheticDataGenerator;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:synthetic",
+    "synthetic.doctors=20",
+    "synthetic.patients=500",
+    "synthetic.rooms=12",
+    "synthetic.appointments=3000",
+    "synthetic.batch-size=250"
+})
+@ActiveProfiles("synthetic-data")
+class SyntheticDataIntegrationTest {
+
+    // Relative ids, so two runs loaded at different id offsets can be compared
+    private static final String SCHEDULE = "select a.room_id, a.starts_at, a.finishes_at, "
+            + "a.patient_id - (select min(id) from patient) as patient, a.doctor_id - (select min(id) from doctors) as doctor "
+            + "from appointment a order by a.id";
+
+    @Autowired
+    private SyntheticDataGenerator generator;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private AppointmentIndex appointmentIndex;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void shouldLoadAScheduleWithoutOverlapsInOpeningHours(){
+        assertThat(count("doctors")).isEqualTo(20);
+        assertThat(count("patient")).isEqualTo(500);
+        assertThat(count("room")).isEqualTo(12);
+        assertThat(count("appointment")).isGreaterThanOrEqualTo(3000);
+        assertThat(appointmentIndex.size()).isEqualTo(count("appointment"));
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from appointment a join appointment b "
+                + "on a.room_id = b.room_id and a.id < b.id and a.starts_at < b.finishes_at and b.starts_at < a.finishes_at",
+                Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from appointment "
+                + "where hour(starts_at) < 8 or finishes_at > dateadd('hour', 20, cast(cast(starts_at as date) as timestamp)) "
+                + "or iso_day_of_week(starts_at) > 5", Integer.class)).isZero();
+    }
+
+    @Test
+    void shouldGenerateTheSameRowsForTheSameSeed(){
+        List<Map<String, Object>> first = jdbcTemplate.queryForList(SCHEDULE);
+        first = first.subList(0, 3000);
+
+        jdbcTemplate.update("delete from appointment");
+        jdbcTemplate.update("delete from patient");
+        jdbcTemplate.update("delete from doctors");
+        generator.generate();
+
+        assertThat(jdbcTemplate.queryForList(SCHEDULE)).isEqualTo(first);
+    }
+
+    @Test
+    void shouldHandOutJpaIdsPastTheGeneratedRows(){
+        long maxId = jdbcTemplate.queryForObject("select max(id) from appointment", Long.class);
+
+        Patient patient = patientRepository.save(new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com"));
+        try {
+            assertThat(patient.getId()).isGreaterThan(maxId);
+        } finally {
+            patientRepository.deleteById(patient.getId());
+        }
+    }
+
+    @Test
+    void shouldDriveTheRequestMixAndRecordLatencies() throws Exception {
+        // Read-only mix, so the other tests still see the generated rows only
+        LoadDriver loadDriver = new LoadDriver(jdbcTemplate, environment, context, "", 4, 0, 1, 42,
+                "get-appointment:3,get-patient:2,get-doctor:1,get-room:1,list-rooms:1,free-slots:1", false);
+        Map<String, LatencyRecorder> recorders = loadDriver.drive("http://localhost:" + port, 0, 1);
+
+        assertThat(recorders).containsKeys("get-appointment", "get-patient", "get-doctor", "get-room", "list-rooms", "free-slots");
+        assertThat(recorders.values().stream().mapToInt(LatencyRecorder::getCount).sum()).isPositive();
+        assertThat(recorders.values()).allSatisfy(recorder -> assertThat(recorder.getFailures()).isZero());
+    }
+
+    private int count(String table){
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+    }
+}
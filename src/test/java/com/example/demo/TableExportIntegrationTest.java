@@ -0,0 +1,119 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.demo.controllers.AppointmentController;
+import com.example.demo.entities.*;
+import com.example.demo.repositories.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = "export.fetch-size=50")
+@AutoConfigureMockMvc
+class TableExportIntegrationTest {
+
+    private static final int APPOINTMENTS = 1200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AppointmentController appointmentController;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    private final LocalDateTime base = LocalDateTime.of(2023, 4, 24, 8, 0);
+
+    @BeforeEach
+    void setUp(){
+        // Saved by cascade with the first appointment that refers to them
+        Patient patient = new Patient("Jose Luis", "Olaya", 37, "j.olaya@email.com");
+        Doctor doctor = new Doctor("Perla", "Amalia", 24, "p.amalia@hospital.accwe");
+        List<Appointment> schedule = new ArrayList<>();
+        for (int i = 0; i < APPOINTMENTS; i++){
+            LocalDateTime startsAt = base.plusMinutes(i * 30L);
+            schedule.add(new Appointment(patient, doctor, new Room("Room-" + i % 3), startsAt, startsAt.plusMinutes(30)));
+        }
+        appointmentController.createAppointments(schedule, "all-or-nothing");
+    }
+
+    @AfterEach
+    void cleanUp(){
+        appointmentController.deleteAllAppointments();
+        patientRepository.deleteAll();
+        doctorRepository.deleteAll();
+    }
+
+    @Test
+    void shouldExportAppointmentsAsNdjson() throws Exception {
+        String body = export("/api/appointments/export?format=ndjson", MediaType.APPLICATION_NDJSON);
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(APPOINTMENTS);
+        assertThat(body).endsWith("}\n");
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("startsAt").asText()).isEqualTo("08:00 24/04/2023");
+        assertThat(first.get("patient").get("firstName").asText()).isEqualTo("Jose Luis");
+        assertThat(first.get("room").get("roomName").asText()).isEqualTo("Room-0");
+        // Rows come out in id order
+        long previous = 0;
+        for (String line : lines){
+            long id = objectMapper.readTree(line).get("id").asLong();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void shouldExportAppointmentsAsJsonArray() throws Exception {
+        JsonNode appointments = objectMapper.readTree(export("/api/appointments/export", MediaType.APPLICATION_JSON));
+
+        assertThat(appointments.isArray()).isTrue();
+        assertThat(appointments).hasSize(APPOINTMENTS);
+        assertThat(appointments.get(APPOINTMENTS - 1).get("doctor").get("lastName").asText()).isEqualTo("Amalia");
+    }
+
+    @Test
+    void shouldExportPatientsAndDoctors() throws Exception {
+        JsonNode patients = objectMapper.readTree(export("/api/patients/export", MediaType.APPLICATION_JSON));
+        String doctors = export("/api/doctors/export?format=NDJSON", MediaType.APPLICATION_NDJSON);
+
+        assertThat(patients).hasSize(1);
+        assertThat(patients.get(0).get("email").asText()).isEqualTo("j.olaya@email.com");
+        assertThat(doctors.split("\n")).hasSize(1);
+    }
+
+    private String export(String url, MediaType mediaType) throws Exception {
+        MvcResult started = mockMvc.perform(get(url))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn().getResponse().getContentAsString();
+    }
+}
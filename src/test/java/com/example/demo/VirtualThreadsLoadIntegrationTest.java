@@ -0,0 +1,133 @@
+package com.example.demo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.synthetic.LatencyRecorder;
+import com.example.demo.synthetic.LoadDriver;
+
+/**
+ * Throughput of single appointment reads against a database that takes
+ * QUERY_MILLIS per statement, with a pool large enough not to be the limit.
+ * Thread per request tops out at TOMCAT_THREADS requests in flight; on
+ * virtual threads only the pool bounds them. The virtual thread run needs a
+ * Java 21 runtime and is skipped on older ones, unless the java21 Maven
+ * profile requires it.
+ */
+class VirtualThreadsLoadIntegrationTest {
+
+    private static final int TOMCAT_THREADS = 8;
+    private static final int POOL_SIZE = 64;
+    private static final int CLIENTS = 128;
+    private static final long QUERY_MILLIS = 100;
+    private static final int SECONDS = 3;
+
+    @Test
+    void shouldCapThreadPerRequestAtTheTomcatThreads() throws Exception {
+        double perSecond = throughput(false);
+
+        assertThat(perSecond).isLessThan(TOMCAT_THREADS * 1000.0 / QUERY_MILLIS * 1.1);
+    }
+
+    @Test
+    void shouldServeMoreSlowRequestsOnVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreadConfiguration.isAvailable() || Boolean.getBoolean("virtual-threads.required"),
+                "Virtual threads need Java 21");
+
+        double threadPerRequest = throughput(false);
+        double virtualThreads = throughput(true);
+
+        assertThat(virtualThreads).isGreaterThan(threadPerRequest * 2);
+    }
+
+    @Test
+    void shouldRefuseToStartWithoutVirtualThreads(){
+        assumeFalse(VirtualThreadConfiguration.isAvailable());
+
+        assertThatThrownBy(() -> start(true, new SlowDatabase()).close())
+                .hasStackTraceContaining("Virtual threads need Java 21");
+    }
+
+    private double throughput(boolean virtualThreads) throws Exception {
+        SlowDatabase database = new SlowDatabase();
+        try (ConfigurableApplicationContext context = start(virtualThreads, database)) {
+            database.delayMillis = QUERY_MILLIS;
+            LoadDriver loadDriver = new LoadDriver(context.getBean(JdbcTemplate.class), context.getEnvironment(), context,
+                    "", CLIENTS, 0, 1, 42, "get-appointment:1", false);
+            Map<String, LatencyRecorder> recorders = loadDriver.drive(
+                    "http://localhost:" + context.getEnvironment().getProperty("local.server.port"), 1, SECONDS);
+
+            LatencyRecorder reads = recorders.get("get-appointment");
+            double perSecond = reads.getCount() / (double) SECONDS;
+            assertThat(reads.getFailures()).isZero();
+            return perSecond;
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads, SlowDatabase database){
+        return new SpringApplicationBuilder(TechhubApplication.class)
+                .profiles("synthetic-data")
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(database))
+                // Arguments, as default properties would lose to application.properties
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads,
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "--synthetic.doctors=10",
+                        "--synthetic.patients=100",
+                        "--synthetic.rooms=5",
+                        "--synthetic.appointments=500");
+    }
+
+    /**
+     * Wraps the data source so every statement execution first sleeps, once
+     * a delay is set.
+     */
+    private static class SlowDatabase implements BeanPostProcessor {
+
+        volatile long delayMillis;
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName){
+            return bean instanceof DataSource ? slow(DataSource.class, bean) : bean;
+        }
+
+        private <T> T slow(Class<T> type, Object target){
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+                if (method.getName().startsWith("execute") && delayMillis > 0){
+                    Thread.sleep(delayMillis);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Connection){
+                    return slow(Connection.class, result);
+                }
+                if (result instanceof PreparedStatement){
+                    return slow(PreparedStatement.class, result);
+                }
+                return result;
+            }));
+        }
+    }
+}